@@ -1,4 +1,12 @@
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import mail.LocalMailServer;
+import mail.MailRelay;
 import store.DoctorStore;
+import store.InboxStore;
 import store.MedicineStore;
 import store.PatientStore;
 import store.StaffStore;
@@ -17,6 +25,9 @@ public class HMS {
      *   <li>Loads doctor data from "data/Staff_List.csv".</li>
      *   <li>Loads staff data from "data/Staff_List.csv".</li>
      *   <li>Loads medicine data from "data/Medicine_List.csv".</li>
+     *   <li>Opens the persistent notification inboxes in "data/Inbox.dat".</li>
+     *   <li>Schedules a daily sweep that discards the expired medicine lots.</li>
+     *   <li>Starts the mail relay that delivers the outbox emails to patients through the local mail server.</li>
      *   <li>Launches the login view.</li>
      * </ul>
      * 
@@ -30,12 +41,22 @@ public class HMS {
             DoctorStore.load("data/Staff_List.csv");
             StaffStore.load("data/Staff_List.csv");
             MedicineStore.load("data/Medicine_List.csv");
+            InboxStore.load("data/Inbox.dat");
         } catch (Exception e) {
             System.out.println("Error loading data from csv files");
             e.printStackTrace();
             System.exit(1);
         }
 
+        ScheduledExecutorService expirySweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "medicine-expiry-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expirySweeper.scheduleAtFixedRate(() -> MedicineStore.removeExpiredLots(new Date()), 0, 1, TimeUnit.DAYS);
+
+        new MailRelay(new LocalMailServer(), MailRelay.DEFAULT_BATCH_SIZE).start();
+
         new LoginView().launch();
     }
 }
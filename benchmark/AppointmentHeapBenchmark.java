@@ -0,0 +1,103 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import model.Appointment;
+import model.AppointmentStatus;
+import model.Doctor;
+import model.Patient;
+import model.UserRole;
+import observer.ISubscriber;
+
+/**
+ * The AppointmentHeapBenchmark class measures the heap taken up by the subscriptions of {@value #APPOINTMENT_COUNT} appointments.
+ * It compares a HashSet of subscribers per appointment, as each appointment used to allocate,
+ * with the central event bus, where only the {@value #SUBSCRIBED_COUNT} appointments that have a subscriber take up memory for it.
+ * The heap is measured as the used heap after garbage collection, so it should be run with enough heap for all the appointments, e.g., -Xmx2g.
+ */
+public class AppointmentHeapBenchmark {
+    /**
+     * The number of appointments.
+     */
+    private static final int APPOINTMENT_COUNT = 1_000_000;
+
+    /**
+     * The number of appointments that have a subscriber, e.g., the upcoming appointments of the logged-in patients.
+     */
+    private static final int SUBSCRIBED_COUNT = 10_000;
+
+    /**
+     * Runs the benchmark and prints the heap taken up by the appointments and by each way of keeping their subscriptions.
+     * Exits with status code 1 if the central event bus takes up as much heap as a HashSet per appointment.
+     *
+     * @param args Command line arguments (not used).
+     * @throws InterruptedException If the main thread is interrupted while waiting for garbage collection.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Patient patient = new Patient("P999", null, UserRole.PATIENT, "Benchmark", true, "patient@hms.com", new Date(), "O+", null);
+        Doctor doctor = new Doctor("D999", null, UserRole.DOCTOR, "Benchmark", true, 40, "doctor@hms.com", "General", 0, 0);
+        Date date = new Date();
+        ISubscriber subscriber = notification -> { };
+
+        long baseline = getUsedHeap();
+        Appointment[] appointments = new Appointment[APPOINTMENT_COUNT];
+        for (int i = 0; i < APPOINTMENT_COUNT; i++) {
+            appointments[i] = new Appointment(String.format("A%07d", i), patient, doctor, date, AppointmentStatus.PENDING, null, false);
+        }
+        long appointmentHeap = getUsedHeap() - baseline;
+
+        baseline = getUsedHeap();
+        for (int i = 0; i < SUBSCRIBED_COUNT; i++) {
+            appointments[i * (APPOINTMENT_COUNT / SUBSCRIBED_COUNT)].subscribe(subscriber);
+        }
+        long eventBusHeap = getUsedHeap() - baseline;
+
+        baseline = getUsedHeap();
+        List<Set<ISubscriber>> subscriberSets = new ArrayList<Set<ISubscriber>>(APPOINTMENT_COUNT);
+        for (int i = 0; i < APPOINTMENT_COUNT; i++) {
+            subscriberSets.add(new HashSet<ISubscriber>());
+        }
+        for (int i = 0; i < SUBSCRIBED_COUNT; i++) {
+            subscriberSets.get(i * (APPOINTMENT_COUNT / SUBSCRIBED_COUNT)).add(subscriber);
+        }
+        long perAppointmentHeap = getUsedHeap() - baseline;
+
+        System.out.printf("appointments=%d heap=%.1f MB%n", APPOINTMENT_COUNT, appointmentHeap / 1e6);
+        System.out.printf("subscriptions=%d per-appointment HashSet heap=%.1f MB%n", SUBSCRIBED_COUNT, perAppointmentHeap / 1e6);
+        System.out.printf("subscriptions=%d central event bus heap=%.1f MB%n", SUBSCRIBED_COUNT, eventBusHeap / 1e6);
+        if (appointments[0].getStatus() != AppointmentStatus.PENDING || subscriberSets.get(0).isEmpty()) {
+            System.out.println("FAILED: the appointments were not kept");
+            System.exit(1);
+        }
+        if (eventBusHeap >= perAppointmentHeap) {
+            System.out.println("FAILED: the central event bus takes up " + eventBusHeap + " bytes, not less than the "
+                + perAppointmentHeap + " bytes of a HashSet per appointment");
+            System.exit(1);
+        }
+        System.out.println("OK: the central event bus only takes up heap for the subscribed appointments");
+    }
+
+    /**
+     * Measures the used heap after running the garbage collector until the used heap stops shrinking.
+     *
+     * @return The used heap in bytes
+     * @throws InterruptedException If the main thread is interrupted while waiting for garbage collection.
+     */
+    private static long getUsedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        while (true) {
+            System.gc();
+            Thread.sleep(50);
+            long current = runtime.totalMemory() - runtime.freeMemory();
+            if (current >= used) {
+                return used;
+            }
+            used = current;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package benchmark;
+
+import java.util.Date;
+
+import model.Doctor;
+import model.Patient;
+import model.User;
+import model.UserRole;
+import view.DashboardViewFactory;
+
+/**
+ * The LoginSoakBenchmark class logs {@value #LOGIN_COUNT} different users in through the DashboardViewFactory,
+ * as a long-running hospital would over time, and checks that the heap stays flat,
+ * i.e., that the dashboard views evicted from the cache are unsubscribed from the stores and garbage collected.
+ */
+public class LoginSoakBenchmark {
+    /**
+     * The number of logins, each by a different user.
+     */
+    private static final int LOGIN_COUNT = 100_000;
+
+    /**
+     * The number of logins between two measurements of the heap.
+     */
+    private static final int SAMPLE_INTERVAL = 10_000;
+
+    /**
+     * The largest growth of the used heap allowed between the first and any later measurement, in bytes.
+     */
+    private static final long MAX_HEAP_GROWTH = 2_000_000;
+
+    /**
+     * Runs the logins and prints the used heap after every {@value #SAMPLE_INTERVAL} logins.
+     * Exits with status code 1 if the used heap grows by more than {@value #MAX_HEAP_GROWTH} bytes.
+     *
+     * @param args Command line arguments (not used).
+     * @throws InterruptedException If the main thread is interrupted while waiting for garbage collection.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        long startTime = System.nanoTime();
+        long firstHeap = -1;
+        long maxHeap = 0;
+        for (int i = 1; i <= LOGIN_COUNT; i++) {
+            DashboardViewFactory.getDashboardView(createUser(i));
+            if (i % SAMPLE_INTERVAL == 0) {
+                long heap = getUsedHeap();
+                if (firstHeap < 0) {
+                    firstHeap = heap;
+                }
+                maxHeap = Math.max(maxHeap, heap);
+                System.out.printf("logins=%d heap=%.2f MB%n", i, heap / 1e6);
+            }
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        long growth = maxHeap - firstHeap;
+        System.out.printf("logins=%d time=%dms growth=%.2f MB%n", LOGIN_COUNT, elapsed / 1_000_000, growth / 1e6);
+        if (growth > MAX_HEAP_GROWTH) {
+            System.out.println("FAILED: the used heap grew by " + growth + " bytes over " + LOGIN_COUNT + " logins");
+            System.exit(1);
+        }
+        System.out.println("OK: heap stays flat");
+    }
+
+    /**
+     * Creates the i-th user to log in, cycling through the roles.
+     *
+     * @param i The number of the login
+     * @return The user
+     */
+    private static User createUser(int i) {
+        switch (i % 4) {
+            case 0:
+                return new Patient("P" + i, null, UserRole.PATIENT, "Patient " + i, true, "p" + i + "@hms.com", new Date(), "O+", null);
+            case 1:
+                return new Doctor("D" + i, null, UserRole.DOCTOR, "Doctor " + i, true, 40, "d" + i + "@hms.com", "General", 0, 0);
+            case 2:
+                return new User("PH" + i, null, UserRole.PHARMACIST, "Pharmacist " + i, true, 30, "ph" + i + "@hms.com");
+            default:
+                return new User("A" + i, null, UserRole.ADMINISTRATOR, "Administrator " + i, true, 50, "a" + i + "@hms.com");
+        }
+    }
+
+    /**
+     * Measures the used heap after running the garbage collector until the used heap stops shrinking.
+     *
+     * @return The used heap in bytes
+     * @throws InterruptedException If the main thread is interrupted while waiting for garbage collection.
+     */
+    private static long getUsedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        while (true) {
+            System.gc();
+            Thread.sleep(50);
+            long current = runtime.totalMemory() - runtime.freeMemory();
+            if (current >= used) {
+                return used;
+            }
+            used = current;
+        }
+    }
+}
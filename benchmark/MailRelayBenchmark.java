@@ -0,0 +1,82 @@
+package benchmark;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import mail.LocalMailServer;
+import mail.MailRelay;
+import model.OutboxMessage;
+import model.OutboxMessageStatus;
+import store.OutboxStore;
+
+/**
+ * The MailRelayBenchmark class measures the throughput of the MailRelay at various batch sizes against a LocalMailServer
+ * that simulates the latency of a mail server, and rejects the first batch of each run so that the retries are exercised too.
+ * It checks that every message is delivered exactly once and that none is left in the outbox.
+ */
+public class MailRelayBenchmark {
+    /**
+     * The number of messages sent at each batch size.
+     */
+    private static final int MESSAGE_COUNT = 500;
+
+    /**
+     * The batch sizes of the relay.
+     */
+    private static final int[] BATCH_SIZES = {1, 5, 25, 100};
+
+    /**
+     * The simulated latency of opening a session with the mail server in milliseconds.
+     */
+    private static final long SESSION_LATENCY_MILLIS = 10;
+
+    /**
+     * The simulated latency of accepting a message in milliseconds.
+     */
+    private static final long MESSAGE_LATENCY_MILLIS = 1;
+
+    /**
+     * The interval between two runs of the relay while the rejected messages are waiting to be retried, in milliseconds.
+     */
+    private static final long RETRY_POLL_MILLIS = 100;
+
+    /**
+     * Runs the relay at each batch size and prints its throughput.
+     * Exits with status code 1 if a message is lost, delivered twice or left in the outbox.
+     *
+     * @param args Command line arguments (not used).
+     * @throws InterruptedException If the main thread is interrupted while waiting for the retries.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        for (int batchSize : BATCH_SIZES) {
+            LocalMailServer server = new LocalMailServer(SESSION_LATENCY_MILLIS, MESSAGE_LATENCY_MILLIS);
+            MailRelay relay = new MailRelay(server, batchSize);
+            for (int i = 0; i < MESSAGE_COUNT; i++) {
+                OutboxStore.addRecord(new OutboxMessage(null, "patient" + i + "@hms.com", "Benchmark " + i, "Benchmark message " + i));
+            }
+            server.rejectNextBatches(1);
+
+            long startTime = System.nanoTime();
+            relay.relay();
+            while (!OutboxStore.getRecords(OutboxMessageStatus.PENDING).isEmpty()) {
+                Thread.sleep(RETRY_POLL_MILLIS);
+                relay.relay();
+            }
+            long elapsed = System.nanoTime() - startTime;
+
+            Set<String> messageIds = new HashSet<String>();
+            for (OutboxMessage message : server.getDeliveredMessages()) {
+                messageIds.add(message.getMessageId());
+            }
+            System.out.printf("batchSize=%d messages=%d batches=%d retries=%d time=%dms throughput=%.0f messages/s%n",
+                batchSize, relay.getSentCount(), relay.getBatchCount(), relay.getRetryCount(), elapsed / 1_000_000, relay.getThroughput());
+            if (server.getDeliveredCount() != MESSAGE_COUNT || messageIds.size() != MESSAGE_COUNT || relay.getFailedCount() != 0
+                    || !OutboxStore.getRecords(OutboxMessageStatus.FAILED).isEmpty()) {
+                System.out.println("FAILED: expected " + MESSAGE_COUNT + " messages delivered once each, got " + server.getDeliveredCount()
+                    + " deliveries of " + messageIds.size() + " messages and " + relay.getFailedCount() + " failed messages");
+                System.exit(1);
+            }
+        }
+        System.out.println("OK: every message delivered exactly once");
+    }
+}
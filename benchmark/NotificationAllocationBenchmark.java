@@ -0,0 +1,93 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+
+import model.Appointment;
+import model.AppointmentStatus;
+import model.Doctor;
+import model.Patient;
+import model.UserRole;
+import observer.ISubscriber;
+
+/**
+ * The NotificationAllocationBenchmark class measures the heap allocated by the status transitions of an appointment
+ * with zero, one and many subscribers, using the allocated bytes counter of the current thread.
+ * It checks that a status transition without subscribers allocates nothing,
+ * i.e., that neither a notification nor a lookup key is built when nobody subscribes.
+ */
+public class NotificationAllocationBenchmark {
+    /**
+     * The number of status transitions performed before measuring, so that the measured code is compiled.
+     */
+    private static final int WARMUP_TRANSITIONS = 200_000;
+
+    /**
+     * The number of status transitions measured for each number of subscribers.
+     */
+    private static final int MEASURED_TRANSITIONS = 1_000_000;
+
+    /**
+     * The largest allocation allowed per status transition without subscribers in bytes,
+     * which leaves room for the counter itself and the occasional allocation of the JVM on the benchmark thread.
+     */
+    private static final double MAX_BYTES_WITHOUT_SUBSCRIBERS = 1.0;
+
+    /**
+     * The numbers of subscribers to the appointment.
+     */
+    private static final int[] SUBSCRIBER_COUNTS = {0, 1, 16};
+
+    /**
+     * Runs the benchmark for each number of subscribers and prints the bytes allocated per status transition.
+     * Exits with status code 1 if a transition without subscribers allocates more than {@value #MAX_BYTES_WITHOUT_SUBSCRIBERS} bytes.
+     *
+     * @param args Command line arguments (not used).
+     */
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        Patient patient = new Patient("P999", null, UserRole.PATIENT, "Benchmark", true, "patient@hms.com", new Date(), "O+", null);
+        Doctor doctor = new Doctor("D999", null, UserRole.DOCTOR, "Benchmark", true, 40, "doctor@hms.com", "General", 0, 0);
+
+        double[] bytesPerTransition = new double[SUBSCRIBER_COUNTS.length];
+        for (int c = 0; c < SUBSCRIBER_COUNTS.length; c++) {
+            Appointment appointment = new Appointment("A" + c, patient, doctor, new Date(), AppointmentStatus.PENDING, null, false);
+            ISubscriber[] subscribers = new ISubscriber[SUBSCRIBER_COUNTS[c]];
+            for (int s = 0; s < subscribers.length; s++) {
+                subscribers[s] = notification -> { };
+                appointment.subscribe(subscribers[s]);
+            }
+
+            transition(appointment, WARMUP_TRANSITIONS);
+            long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+            transition(appointment, MEASURED_TRANSITIONS);
+            long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+            bytesPerTransition[c] = (double) allocated / MEASURED_TRANSITIONS;
+            System.out.printf("subscribers=%d transitions=%d allocated=%d bytes (%.1f bytes/transition)%n",
+                subscribers.length, MEASURED_TRANSITIONS, allocated, bytesPerTransition[c]);
+            appointment.unsubscribeAll();
+        }
+
+        if (bytesPerTransition[0] > MAX_BYTES_WITHOUT_SUBSCRIBERS) {
+            System.out.println("FAILED: a transition without subscribers allocates " + bytesPerTransition[0]
+                + " bytes, more than " + MAX_BYTES_WITHOUT_SUBSCRIBERS + " bytes");
+            System.exit(1);
+        }
+        System.out.println("OK: nothing allocated without subscribers");
+    }
+
+    /**
+     * Moves an appointment back and forth between PENDING and CONFIRMED,
+     * which are the statuses that keep the subscriptions of the appointment.
+     *
+     * @param appointment The appointment
+     * @param count The number of status transitions
+     */
+    private static void transition(Appointment appointment, int count) {
+        for (int i = 0; i < count; i++) {
+            appointment.setStatus(i % 2 == 0 ? AppointmentStatus.CONFIRMED : AppointmentStatus.PENDING);
+        }
+    }
+}
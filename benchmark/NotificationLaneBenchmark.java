@@ -0,0 +1,112 @@
+package benchmark;
+
+import java.util.concurrent.locks.LockSupport;
+
+import observer.AsyncSubscriber;
+import observer.Notification;
+import observer.NotificationPriority;
+import observer.OverflowPolicy;
+import view.DashboardView;
+
+/**
+ * The NotificationLaneBenchmark class measures the delivery lag of each priority lane of an AsyncSubscriber under a flood of routine notifications.
+ * <p>
+ * One thread floods a subscriber that takes {@value #DELIVERY_NANOS} ns per notification with {@value #FLOOD_COUNT} routine notifications,
+ * alternately NORMAL and LOW, at about twice the rate the subscriber can keep up with,
+ * while another thread publishes an URGENT low stock alert every {@value #URGENT_INTERVAL_MILLIS} ms.
+ * The subscriber is configured like the dashboard views, i.e., with their queue capacity and the COALESCE policy.
+ * </p>
+ * It checks that no urgent alert is dropped and that the urgent lane has a lower 99th percentile delivery lag than the routine lanes.
+ */
+public class NotificationLaneBenchmark {
+    /**
+     * The time the subscriber takes to handle a notification in nanoseconds.
+     */
+    private static final long DELIVERY_NANOS = 20_000;
+
+    /**
+     * The number of routine notifications in the flood.
+     */
+    private static final int FLOOD_COUNT = 300_000;
+
+    /**
+     * The number of routine notifications published between two pauses of the flooding thread.
+     */
+    private static final int FLOOD_BURST = 100;
+
+    /**
+     * The pause of the flooding thread after each burst in nanoseconds.
+     */
+    private static final long FLOOD_PAUSE_NANOS = 1_000_000;
+
+    /**
+     * The interval between two urgent alerts in milliseconds.
+     */
+    private static final long URGENT_INTERVAL_MILLIS = 2;
+
+    /**
+     * Runs the flood and prints the delivered and dropped counts and the delivery lag percentiles of each lane.
+     * Exits with status code 1 if an urgent alert is dropped or the urgent lane is not the fastest.
+     *
+     * @param args Command line arguments (not used).
+     * @throws InterruptedException If the main thread is interrupted while waiting for the publishers or the deliveries.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        AsyncSubscriber subscriber = new AsyncSubscriber(notification -> {
+            long end = System.nanoTime() + DELIVERY_NANOS;
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+        }, DashboardView.NOTIFICATION_QUEUE_CAPACITY, OverflowPolicy.COALESCE);
+
+        Thread flooder = new Thread(() -> {
+            for (int i = 0; i < FLOOD_COUNT; i++) {
+                if (i % 2 == 0) {
+                    subscriber.update(Notification.appointmentAdded(String.format("A%07d", i), "P001", "D001"));
+                } else {
+                    subscriber.update(Notification.medicineStockChanged(String.format("M%07d", i), i));
+                }
+                if (i % FLOOD_BURST == FLOOD_BURST - 1) {
+                    LockSupport.parkNanos(FLOOD_PAUSE_NANOS);
+                }
+            }
+        });
+        long[] urgentCount = new long[1];
+        Thread alerter = new Thread(() -> {
+            while (flooder.isAlive()) {
+                subscriber.update(Notification.medicineLowStock(String.format("U%07d", urgentCount[0]), "Benchmark", 1, 10));
+                urgentCount[0]++;
+                LockSupport.parkNanos(URGENT_INTERVAL_MILLIS * 1_000_000);
+            }
+        });
+
+        long startTime = System.nanoTime();
+        flooder.start();
+        alerter.start();
+        flooder.join();
+        alerter.join();
+        while (subscriber.getQueueDepth() > 0) {
+            Thread.sleep(10);
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        System.out.printf("published=%d urgent=%d time=%dms%n", FLOOD_COUNT + urgentCount[0], urgentCount[0], elapsed / 1_000_000);
+        for (NotificationPriority priority : NotificationPriority.values()) {
+            System.out.printf("lane=%s delivered=%d dropped=%d p50=%.3fms p99=%.3fms max=%.3fms%n",
+                priority, subscriber.getDeliveredCount(priority), subscriber.getDroppedCount(priority),
+                subscriber.getDeliveryLagPercentile(priority, 50), subscriber.getDeliveryLagPercentile(priority, 99),
+                subscriber.getMaxDeliveryLag(priority));
+        }
+
+        double urgentLag = subscriber.getDeliveryLagPercentile(NotificationPriority.URGENT, 99);
+        if (subscriber.getDroppedCount(NotificationPriority.URGENT) > 0
+                || subscriber.getDeliveredCount(NotificationPriority.URGENT) != urgentCount[0]
+                || urgentLag >= subscriber.getDeliveryLagPercentile(NotificationPriority.NORMAL, 99)
+                || urgentLag >= subscriber.getDeliveryLagPercentile(NotificationPriority.LOW, 99)) {
+            System.out.println("FAILED: expected all " + urgentCount[0] + " urgent alerts delivered with the lowest p99 lag, got "
+                + subscriber.getDeliveredCount(NotificationPriority.URGENT) + " delivered with p99 " + urgentLag + "ms");
+            System.exit(1);
+        }
+        System.out.println("OK: urgent alerts delivered ahead of the flood");
+    }
+}
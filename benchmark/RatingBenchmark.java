@@ -0,0 +1,68 @@
+package benchmark;
+
+import java.util.concurrent.CountDownLatch;
+
+import model.Doctor;
+import model.UserRole;
+
+/**
+ * The RatingBenchmark class measures the throughput of concurrent ratings of a doctor
+ * and checks that no rating is lost, i.e., the rating sum and count of the doctor are exact after all threads have finished.
+ */
+public class RatingBenchmark {
+    /**
+     * The number of ratings added by each thread.
+     */
+    private static final int RATINGS_PER_THREAD = 1_000_000;
+
+    /**
+     * The numbers of threads that rate the same doctor concurrently.
+     */
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+
+    /**
+     * Runs the benchmark for each number of threads and prints the throughput.
+     * Exits with status code 1 if a rating is lost.
+     *
+     * @param args Command line arguments (not used).
+     * @throws InterruptedException If the main thread is interrupted while waiting for the threads.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        for (int threadCount : THREAD_COUNTS) {
+            Doctor doctor = new Doctor("D999", null, UserRole.DOCTOR, "Benchmark", true, 40, "benchmark@hms.com", "General", 0, 0);
+            CountDownLatch start = new CountDownLatch(1);
+            Thread[] threads = new Thread[threadCount];
+            for (int t = 0; t < threadCount; t++) {
+                threads[t] = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < RATINGS_PER_THREAD; i++) {
+                        doctor.addRating(i % 5 + 1);
+                    }
+                });
+                threads[t].start();
+            }
+
+            long startTime = System.nanoTime();
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            long elapsed = System.nanoTime() - startTime;
+
+            long expectedCount = (long) threadCount * RATINGS_PER_THREAD;
+            long expectedSum = (long) threadCount * (RATINGS_PER_THREAD / 5) * 15;
+            System.out.printf("threads=%d ratings=%d time=%dms throughput=%.0f ratings/s average=%.4f%n",
+                threadCount, expectedCount, elapsed / 1_000_000, expectedCount * 1e9 / elapsed, doctor.getRating());
+            if (doctor.getRatingCount() != expectedCount || doctor.getRatingSum() != expectedSum || doctor.getRating() != 3.0f) {
+                System.out.println("FAILED: expected " + expectedCount + " ratings with sum " + expectedSum
+                    + ", got " + doctor.getRatingCount() + " ratings with sum " + doctor.getRatingSum());
+                System.exit(1);
+            }
+        }
+        System.out.println("OK: no rating lost");
+    }
+}
@@ -0,0 +1,122 @@
+package benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import model.Medicine;
+
+/**
+ * The StockLedgerBenchmark class measures the throughput of concurrent dispensing and replenishment of a single medicine
+ * and checks the invariants of its stock ledger under contention:
+ * <ul>
+ *   <li>Every reservation can be committed, i.e., the medicine is never oversold.</li>
+ *   <li>The final stock level equals the initial stock level plus the replenished quantity minus the dispensed quantity.</li>
+ *   <li>No stock is left reserved once all reservations have been committed or released.</li>
+ * </ul>
+ */
+public class StockLedgerBenchmark {
+    /**
+     * The initial stock level of the medicine.
+     */
+    private static final int INITIAL_STOCK = 1000;
+
+    /**
+     * The quantity added by every {@value #REPLENISH_INTERVAL}th operation of each thread.
+     */
+    private static final int REPLENISH_QUANTITY = 12;
+
+    /**
+     * The interval between two replenishments of each thread, in operations.
+     */
+    private static final int REPLENISH_INTERVAL = 10;
+
+    /**
+     * The number of operations performed by each thread.
+     */
+    private static final int OPERATIONS_PER_THREAD = 500_000;
+
+    /**
+     * The numbers of threads that dispense and replenish the medicine concurrently.
+     */
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+
+    /**
+     * Runs the benchmark for each number of threads and prints the throughput.
+     * Exits with status code 1 if an invariant is broken.
+     *
+     * @param args Command line arguments (not used).
+     * @throws InterruptedException If the main thread is interrupted while waiting for the threads.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        for (int threadCount : THREAD_COUNTS) {
+            Medicine medicine = new Medicine("M999", "Benchmark", INITIAL_STOCK, 10, false, 1);
+            AtomicLong dispensed = new AtomicLong();
+            AtomicLong replenished = new AtomicLong();
+            AtomicLong rejected = new AtomicLong();
+            AtomicLong failedCommits = new AtomicLong();
+            CountDownLatch start = new CountDownLatch(1);
+
+            Thread[] threads = new Thread[threadCount];
+            for (int t = 0; t < threadCount; t++) {
+                threads[t] = new Thread(() -> {
+                    await(start);
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        if (i % REPLENISH_INTERVAL == 0) {
+                            medicine.replenishStock(REPLENISH_QUANTITY);
+                            replenished.addAndGet(REPLENISH_QUANTITY);
+                            continue;
+                        }
+                        int quantity = i % 3 + 1;
+                        if (!medicine.reserveStock(quantity)) {
+                            rejected.incrementAndGet();
+                            continue;
+                        }
+                        if (i % 4 == 0) {
+                            medicine.releaseStock(quantity);
+                        } else if (medicine.commitStock(quantity)) {
+                            dispensed.addAndGet(quantity);
+                        } else {
+                            failedCommits.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            for (Thread thread : threads) {
+                thread.start();
+            }
+
+            long startTime = System.nanoTime();
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            long elapsed = System.nanoTime() - startTime;
+
+            long operations = (long) threadCount * OPERATIONS_PER_THREAD;
+            long expectedStock = INITIAL_STOCK + replenished.get() - dispensed.get();
+            System.out.printf("threads=%d operations=%d time=%dms throughput=%.0f ops/s dispensed=%d replenished=%d rejected=%d stock=%d%n",
+                threadCount, operations, elapsed / 1_000_000, operations * 1e9 / elapsed,
+                dispensed.get(), replenished.get(), rejected.get(), medicine.getStock());
+            if (failedCommits.get() > 0 || medicine.getStock() != expectedStock || medicine.getReservedStock() != 0
+                    || medicine.getStockHistory().getStockAt(System.currentTimeMillis()) != expectedStock) {
+                System.out.println("FAILED: expected stock " + expectedStock + " with nothing reserved, got stock " + medicine.getStock()
+                    + " with " + medicine.getReservedStock() + " reserved and " + failedCommits.get() + " failed commits");
+                System.exit(1);
+            }
+        }
+        System.out.println("OK: never oversold, stock level consistent");
+    }
+
+    /**
+     * Waits for the start signal of the benchmark.
+     *
+     * @param start The start signal
+     */
+    private static void await(CountDownLatch start) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
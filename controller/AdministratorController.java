@@ -1,12 +1,27 @@
 package controller;
 
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import model.Appointment;
 import model.AppointmentOutcomeRecord;
+import model.AppointmentStatus;
+import model.Bill;
 import model.Doctor;
 import model.Medicine;
+import model.MedicineLot;
+import model.ReplenishmentForecast;
+import model.RatingStatistics;
 import model.User;
 import model.UserRole;
 import store.AppointmentOutcomeRecordStore;
@@ -18,11 +33,21 @@ import store.StaffStore;
 /**
  * The AdministratorController class provides Administrator with methods for managing staff, appointments, and medicine inventory.
  * <p>
- * It depends on Appointment, AppointmentOutcomeRecord, Doctor, Medicine, User, AppointmentOutcomeRecordStore, AppointmentStore,
+ * It depends on Appointment, AppointmentOutcomeRecord, Bill, Doctor, Medicine, RatingStatistics, ReplenishmentForecast, StockHistory, User, AppointmentOutcomeRecordStore, AppointmentStore,
  * DoctorStore, MedicineStore, and StaffStore.
  * </p>
  */
 public class AdministratorController {
+    /**
+     * The number of bills rendered in parallel before they are written to the export file.
+     */
+    private static final int BILL_EXPORT_BATCH_SIZE = 1024;
+
+    /**
+     * The number of days of consumption that a replenishment should cover on top of the low stock level alert line.
+     */
+    private static final int REPLENISHMENT_COVER_DAYS = 14;
+
     /**
      * Adds a staff member to the system.
      *
@@ -180,6 +205,30 @@ public class AdministratorController {
         }
     }
 
+    /**
+     * Updates the details of a doctor by the user ID.
+     * The stored doctor is updated in place, so its ratings and rating statistics are kept.
+     * 
+     * @param userId the user ID of the doctor
+     * @param name the new name of the doctor
+     * @param isMale the new gender of the doctor
+     * @param age the new age of the doctor
+     * @param email the new email address of the doctor
+     * @param specialty the new specialty of the doctor
+     * @throws Exception if the doctor is not found
+     */
+    public static void updateDoctor(String userId, String name, boolean isMale, int age, String email, String specialty) throws Exception{
+        Doctor doctor = DoctorStore.getRecord(userId);
+        if(doctor == null){
+            throw new Exception("Staff Not Found.");
+        }
+        doctor.setName(name);
+        doctor.setIsMale(isMale);
+        doctor.setAge(age);
+        doctor.updatePersonalInfo(email);
+        doctor.setSpecialty(specialty);
+    }
+
     /**
      * Removes a staff member by the user ID.
      * 
@@ -200,6 +249,37 @@ public class AdministratorController {
         throw new Exception("Staff Not Found.");
     }
 
+    /**
+     * Gets all doctors in the system sorted by their average ratings in descending order.
+     * 
+     * @return the list of all doctors
+     */
+    public static List<Doctor> getDoctors(){
+        List<Doctor> doctors = DoctorStore.getRecords();
+        Collections.sort(doctors);
+        return doctors;
+    }
+
+    /**
+     * Searches for doctors whose average rating over the last 30 days has dropped below the specified threshold.
+     * Only the per-doctor rating statistics are consulted, so no appointment needs to be scanned.
+     * Doctors without any rating in the last 30 days are excluded.
+     * 
+     * @param threshold the average rating threshold
+     * @return the list of doctors whose recent average rating is below the threshold
+     */
+    public static List<Doctor> searchDoctorsWithRecentRatingBelow(float threshold){
+        long now = System.currentTimeMillis();
+        List<Doctor> Result = new ArrayList<Doctor>();
+        for(Doctor doctor : DoctorStore.getRecords()) {
+            RatingStatistics statistics = doctor.getRatingStatistics();
+            if(statistics.getRecentCount(now) > 0 && statistics.getRecentAverage(now) < threshold){
+                Result.add(doctor);
+            }
+        }
+        return Result;
+    }
+
     /**
      * Gets all appointment details in the system.
      * 
@@ -224,6 +304,74 @@ public class AdministratorController {
         throw new Exception("Appointment Outcome Record Not Found.");
     }
 
+    /**
+     * Exports the bills of all COMPLETED appointments dated within the specified range to a file.
+     * <p>
+     * The appointments are processed in batches: the bills of a batch are rendered in parallel on a fork-join pool,
+     * then streamed in appointment ID order to the file through a buffered writer.
+     * Each bill is preceded by the appointment ID and the patient ID it belongs to.
+     * </p>
+     * 
+     * @param from the start date of the range (inclusive)
+     * @param to   the end date of the range (inclusive)
+     * @param path the path to the export file
+     * @return the number of bills exported
+     * @throws Exception if the date range is invalid or an I/O error occurs
+     */
+    public static int exportBills(Date from, Date to, String path) throws Exception{
+        if(from.after(to)){
+            throw new Exception("Invalid Date Range.");
+        }
+
+        List<Appointment> appointments = new ArrayList<Appointment>();
+        for(Appointment appointment : AppointmentStore.getRecords()) {
+            if(appointment.getStatus() == AppointmentStatus.COMPLETED && appointment.getOutcomeRecordId() != null
+                && !appointment.getDate().before(from) && !appointment.getDate().after(to)){
+                appointments.add(appointment);
+            }
+        }
+        appointments.sort((a, b) -> a.getAppointmentId().compareTo(b.getAppointmentId()));
+
+        int count = 0;
+        ForkJoinPool pool = new ForkJoinPool();
+        try (Writer writer = new BufferedWriter(new FileWriter(path))) {
+            for(int start = 0; start < appointments.size(); start += BILL_EXPORT_BATCH_SIZE) {
+                List<Appointment> batch = appointments.subList(start, Math.min(start + BILL_EXPORT_BATCH_SIZE, appointments.size()));
+                List<String> bills = pool.submit(() -> batch.parallelStream()
+                    .map(AdministratorController::renderBill)
+                    .collect(Collectors.toList())).get();
+                for(String bill : bills) {
+                    if(bill != null){
+                        writer.write(bill);
+                        count++;
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return count;
+    }
+
+    /**
+     * Renders the bill of a COMPLETED appointment for exporting, preceded by the appointment ID and the patient ID.
+     * 
+     * @param appointment the COMPLETED appointment
+     * @return the rendered bill, or null if the appointment outcome record is not found
+     */
+    private static String renderBill(Appointment appointment){
+        AppointmentOutcomeRecord record = AppointmentOutcomeRecordStore.getRecord(appointment.getOutcomeRecordId());
+        if(record == null){
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(512);
+        sb.append("Appointment ID: ").append(appointment.getAppointmentId()).append('\n');
+        sb.append("Patient ID: ").append(appointment.getPatient().getUserId()).append('\n');
+        new Bill(record).appendTo(sb);
+        sb.append('\n');
+        return sb.toString();
+    }
+
     /**
      * Gets the details of all medications in the inventory.
      * 
@@ -233,6 +381,51 @@ public class AdministratorController {
         return MedicineStore.getRecords();
     }
 
+    /**
+     * Gets the medications at or below their low stock level alert lines, which need replenishment the most first.
+     * 
+     * @return the list of low stock medications
+     */
+    public static List<Medicine> getLowStockMedicines(){
+        return MedicineStore.getLowStockRecords();
+    }
+
+    /**
+     * Forecasts the replenishment needs of all medications in the inventory in one pass.
+     * <p>
+     * The daily consumption rate of each medication is the exponentially weighted moving average of its recent daily dispensed quantities.
+     * The suggested reorder quantity brings the stock level up to the low stock level alert line plus the larger of
+     * the expected consumption over the next {@value #REPLENISHMENT_COVER_DAYS} days and the low stock level alert line itself.
+     * </p>
+     * 
+     * @return the list of replenishment forecasts of all medications
+     */
+    public static List<ReplenishmentForecast> getReplenishmentForecasts(){
+        long now = System.currentTimeMillis();
+        List<ReplenishmentForecast> forecasts = new ArrayList<ReplenishmentForecast>();
+        for(Medicine medicine : MedicineStore.getRecords()) {
+            forecasts.add(forecastReplenishment(medicine, now));
+        }
+        return forecasts;
+    }
+
+    /**
+     * Forecasts the replenishment needs of a medication.
+     * 
+     * @param medicine the medication
+     * @param now      the current time in milliseconds since the epoch
+     * @return the replenishment forecast of the medication
+     */
+    private static ReplenishmentForecast forecastReplenishment(Medicine medicine, long now){
+        double rate = medicine.getConsumptionTracker().getDailyRate(now);
+        int stock = medicine.getStock();
+        double daysUntilStockout = rate > 0 ? stock / rate : Double.POSITIVE_INFINITY;
+        long cover = Math.max((long) Math.ceil(rate * REPLENISHMENT_COVER_DAYS), medicine.getLowStockThreshold());
+        long target = medicine.getLowStockThreshold() + cover;
+        int suggestedQuantity = (int) Math.max(0, target - stock);
+        return new ReplenishmentForecast(medicine, rate, daysUntilStockout, suggestedQuantity);
+    }
+
     /**
      * Adds a medication to the inventory.
      * 
@@ -258,21 +451,41 @@ public class AdministratorController {
     }
 
     /**
-     * Updates the stock level of a medication by the medicine ID.
+     * Gets the stock level of a medication at the specified time from its stock history.
      * 
      * @param medicineId the medicine ID of the medication
-     * @param stockLevel the new stock level of the medication
+     * @param time the time at which the stock level is looked up
+     * @return the stock level of the medication at the time
      * @throws Exception if the medication is not found
      */
-    public static void updateMedicineStockLevel(String medicineId, int stockLevel) throws Exception{
+    public static int getMedicineStockLevelAt(String medicineId, Date time) throws Exception{
         Medicine medicine = MedicineStore.getRecord(medicineId);
         if(medicine != null){
-            medicine.setStock(stockLevel);
-            return;
+            return medicine.getStockHistory().getStockAt(time.getTime());
         }
         throw new Exception("Medicine Not Found.");
     }
 
+    /**
+     * Updates the stock level of a medication by the medicine ID.
+     * 
+     * @param medicineId the medicine ID of the medication
+     * @param stockLevel the new stock level of the medication
+     * @throws Exception if the medication is not found or the new stock level is negative or lower than the reserved stock level
+     */
+    public static void updateMedicineStockLevel(String medicineId, int stockLevel) throws Exception{
+        Medicine medicine = MedicineStore.getRecord(medicineId);
+        if(medicine == null){
+            throw new Exception("Medicine Not Found.");
+        }
+        if(stockLevel < 0){
+            throw new Exception("Stock level cannot be negative.");
+        }
+        if(!medicine.setStock(stockLevel)){
+            throw new Exception("Stock level cannot be lower than the reserved stock level.");
+        }
+    }
+
     /**
      * Updates the low stock level alert line of a medication by the medicine ID.
      * 
@@ -289,19 +502,91 @@ public class AdministratorController {
         throw new Exception("Medicine Not Found.");
     }
 
+    /**
+     * Receives a new lot of a medication with an expiry date by the medicine ID.
+     * 
+     * @param medicineId the medicine ID of the medication
+     * @param quantity the quantity of the lot
+     * @param expiryDate the expiry date of the lot
+     * @throws Exception if the quantity is not positive, the lot has already expired or the medication is not found
+     */
+    public static void receiveMedicineLot(String medicineId, int quantity, Date expiryDate) throws Exception{
+        if(quantity <= 0){
+            throw new Exception("Invalid lot quantity.");
+        }
+        if(MedicineLot.hasExpired(expiryDate, new Date())){
+            throw new Exception("Lot has already expired.");
+        }
+        if(MedicineStore.receiveLot(medicineId, quantity, expiryDate) == null){
+            throw new Exception("Medicine Not Found.");
+        }
+    }
+
+    /**
+     * Discards the expired lots of all medications.
+     * 
+     * @return the map from each medication with expired lots to the quantity discarded
+     */
+    public static Map<Medicine, Integer> removeExpiredMedicineLots(){
+        return MedicineStore.removeExpiredLots(new Date());
+    }
+
     /**
      * Approves a replenishment request for a medication by the medicine ID.
+     * The medication is replenished by the suggested reorder quantity of its replenishment forecast,
+     * and nothing is ordered if the stock level already covers the forecast.
      * 
      * @param medicineId the medicine ID of the medication requesting replenishment
+     * @return the quantity ordered, which is 0 if nothing is ordered
      * @throws Exception if the medication is not found or the medication is not requesting replenishment
      */
-    public static void approveReplenishmentRequest(String medicineId) throws Exception{
-        Medicine medicine = MedicineStore.getRecord(medicineId);
-        if(medicine != null && medicine.getIsRequestingReplenishment()){
-            medicine.setStock(medicine.getStock() + medicine.getLowStockThreshold());
-            medicine.setIsRequestingReplenishment(false);
-            return;
+    public static int approveReplenishmentRequest(String medicineId) throws Exception{
+        Medicine medicine = MedicineStore.removeReplenishmentRequest(medicineId);
+        if(medicine != null){
+            return replenish(medicine, System.currentTimeMillis());
         }
         throw new Exception("Medicine Replenishment Request Not Found.");
     }
+
+    /**
+     * Replenishes a medication by the suggested reorder quantity of its replenishment forecast, if any.
+     * 
+     * @param medicine the medication
+     * @param now      the current time in milliseconds since the epoch
+     * @return the quantity ordered, which is 0 if the stock level already covers the forecast
+     */
+    private static int replenish(Medicine medicine, long now){
+        int quantity = forecastReplenishment(medicine, now).getSuggestedQuantity();
+        if(quantity > 0){
+            medicine.replenishStock(quantity);
+        }
+        return quantity;
+    }
+
+    /**
+     * Gets the medications with pending replenishment requests.
+     * 
+     * @return the list of medications requesting replenishment
+     */
+    public static List<Medicine> getReplenishmentRequests(){
+        return MedicineStore.getReplenishmentRequestRecords();
+    }
+
+    /**
+     * Approves all pending replenishment requests matching the filter in one batch.
+     * The matching requests are taken from the pending replenishment request index at once,
+     * then each medication is replenished by the suggested reorder quantity of its replenishment forecast,
+     * and nothing is ordered for a medication whose stock level already covers the forecast.
+     * 
+     * @param filter the filter on the medications requesting replenishment
+     * @return the medications whose replenishment requests are approved, mapped to the quantity ordered for each, which is 0 if nothing is ordered
+     */
+    public static Map<Medicine, Integer> approveReplenishmentRequests(Predicate<Medicine> filter){
+        Map<Medicine, Integer> approved = new LinkedHashMap<Medicine, Integer>();
+        long now = System.currentTimeMillis();
+        for(Medicine medicine : MedicineStore.removeReplenishmentRequests(filter)) {
+            approved.put(medicine, replenish(medicine, now));
+        }
+        return approved;
+    }
 }
@@ -8,20 +8,23 @@ import model.Appointment;
 import model.AppointmentOutcomeRecord;
 import model.AppointmentStatus;
 import model.Doctor;
+import model.DomainEventType;
 import model.Medicine;
 import model.Patient;
 import model.Prescription;
 import store.AppointmentOutcomeRecordStore;
 import store.AppointmentStore;
+import store.EventLogStore;
 import store.MedicineStore;
+import store.OutboxStore;
 import store.PatientStore;
 
 /**
  * The DoctorController class provides Doctor with methods for managing medical records of patients under a doctor's care,
  * accepting or declining appointments, searching for medicines, and recording appointment outcomes.
  * <p>
- * It depends on Appointment, AppointmentOutcomeRecord, Doctor, Medicine, Patient, Prescription,
- * AppointmentOutcomeRecordStore, AppointmentStore, MedicineStore, and PatientStore.
+ * It depends on Appointment, AppointmentOutcomeRecord, Doctor, DomainEventType, Medicine, Patient, Prescription,
+ * AppointmentOutcomeRecordStore, AppointmentStore, EventLogStore, MedicineStore, OutboxStore, and PatientStore.
  * </p>
  */
 public class DoctorController {
@@ -90,6 +93,7 @@ public class DoctorController {
 
     /**
      * Accepts an appointment with the specified appointment ID.
+     * An email to the patient is written to the outbox and the event is appended to the event log in the same step as the status change.
      *
      * @param doctorId      the user ID of the doctor
      * @param appointmentId the ID of the appointment
@@ -101,14 +105,19 @@ public class DoctorController {
             throw new Exception("Appointment not found");
         }
 
-        if (!appointment.getDoctor().getUserId().equals(doctorId) || appointment.getStatus() != AppointmentStatus.PENDING) {
-            throw new Exception("Cannot accept appointment");
+        synchronized (appointment) {
+            if (!appointment.getDoctor().getUserId().equals(doctorId) || appointment.getStatus() != AppointmentStatus.PENDING) {
+                throw new Exception("Cannot accept appointment");
+            }
+            appointment.setStatus(AppointmentStatus.CONFIRMED);
+            OutboxStore.addAppointmentStatusRecord(appointment);
+            EventLogStore.append(DomainEventType.APPOINTMENT_CONFIRMED, appointmentId, appointment.getPatient().getUserId(), doctorId, null, 0);
         }
-        appointment.setStatus(AppointmentStatus.CONFIRMED);
     }
 
     /**
      * Declines an appointment with the specified appointment ID.
+     * An email to the patient is written to the outbox and the event is appended to the event log in the same step as the status change.
      *
      * @param doctorId      the user ID of the doctor
      * @param appointmentId the ID of the appointment
@@ -120,12 +129,16 @@ public class DoctorController {
             throw new Exception("Appointment not found");
         }
 
-        if (!appointment.getDoctor().getUserId().equals(doctorId) || appointment.getStatus() != AppointmentStatus.PENDING) {
-            throw new Exception("Cannot decline appointment");
+        synchronized (appointment) {
+            if (!appointment.getDoctor().getUserId().equals(doctorId) || appointment.getStatus() != AppointmentStatus.PENDING) {
+                throw new Exception("Cannot decline appointment");
+            }
+            Doctor doctor = appointment.getDoctor();
+            doctor.addAvailability(appointment.getDate());
+            appointment.setStatus(AppointmentStatus.CANCELLED);
+            OutboxStore.addAppointmentStatusRecord(appointment);
+            EventLogStore.append(DomainEventType.APPOINTMENT_DECLINED, appointmentId, appointment.getPatient().getUserId(), doctorId, null, 0);
         }
-        Doctor doctor = appointment.getDoctor();
-        doctor.addAvailability(appointment.getDate());
-        appointment.setStatus(AppointmentStatus.CANCELLED);
     }
 
     /**
@@ -165,13 +178,15 @@ public class DoctorController {
 
     /**
      * Records the outcome of an appointment with the specified appointment ID.
+     * The prices of the prescribed medicines are snapshotted into the billing line items of the new appointment outcome record.
+     * The status is checked and changed under the lock of the appointment, so that it cannot be cancelled or completed twice in between.
      *
      * @param doctorId      the user ID of the doctor
      * @param appointmentId the ID of the appointment
      * @param serviceType   the service type of the appointment
      * @param prescription  the list of prescriptions in the appointment outcome
      * @param notes         the consultation notes of the appointment outcome
-     * @throws Exception if the appointment is not found, is not CONFIRMED, or the doctor does not match
+     * @throws Exception if the appointment is not found, is not CONFIRMED, the doctor does not match, or a prescription quantity is not positive
      */
     public static void recordAppointmentOutcome(String doctorId, String appointmentId, String serviceType, List<Prescription> prescription, String notes) throws Exception {
         Appointment appointment = AppointmentStore.getRecord(appointmentId);
@@ -179,12 +194,20 @@ public class DoctorController {
             throw new Exception("Appointment not found");
         }
 
-        if (!appointment.getDoctor().getUserId().equals(doctorId) || appointment.getStatus() != AppointmentStatus.CONFIRMED) {
-            throw new Exception("Cannot record outcome for this appointment");
+        for (Prescription item : prescription) {
+            if (item.getQuantity() < 1) {
+                throw new Exception("Invalid prescription quantity");
+            }
+        }
+        synchronized (appointment) {
+            if (!appointment.getDoctor().getUserId().equals(doctorId) || appointment.getStatus() != AppointmentStatus.CONFIRMED) {
+                throw new Exception("Cannot record outcome for this appointment");
+            }
+            AppointmentOutcomeRecord outcomeRecord = new AppointmentOutcomeRecord(null, appointment.getDate(), serviceType, prescription, notes);
+            String outcomeRecordId = AppointmentOutcomeRecordStore.addRecord(outcomeRecord);
+            appointment.setOutcomeRecordId(outcomeRecordId);
+            appointment.setStatus(AppointmentStatus.COMPLETED);
+            EventLogStore.append(DomainEventType.OUTCOME_RECORDED, appointmentId, appointment.getPatient().getUserId(), doctorId, outcomeRecordId, 0);
         }
-        AppointmentOutcomeRecord outcomeRecord = new AppointmentOutcomeRecord(null, appointment.getDate(), serviceType, prescription, notes);
-        String outcomeRecordId = AppointmentOutcomeRecordStore.addRecord(outcomeRecord);
-        appointment.setOutcomeRecordId(outcomeRecordId);
-        appointment.setStatus(AppointmentStatus.COMPLETED);
     }
 }
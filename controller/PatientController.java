@@ -11,18 +11,23 @@ import model.AppointmentOutcomeRecord;
 import model.AppointmentStatus;
 import model.Bill;
 import model.Doctor;
+import model.DomainEventType;
 import model.Patient;
+import observer.Notification;
 import store.AppointmentOutcomeRecordStore;
 import store.AppointmentStore;
 import store.DoctorStore;
+import store.EventLogStore;
+import store.InboxStore;
+import store.OutboxStore;
 import store.PatientStore;
 
 /**
  * The PatientController class provides Patient with methods for scheduling, rescheduling, and cancelling appointments,
  * viewing scheduled and past appointments, searching for doctors, and printing bills and providing ratings for completed appointments.
  * <p>
- * It depends on Appointment, AppointmentOutcomeRecord, Bill, Doctor, Patient, AppointmentOutcomeRecordStore, AppointmentStore,
- * DoctorStore, and PatientStore.
+ * It depends on Appointment, AppointmentOutcomeRecord, Bill, Doctor, DomainEventType, Patient, Notification, AppointmentOutcomeRecordStore, AppointmentStore,
+ * DoctorStore, EventLogStore, InboxStore, OutboxStore, and PatientStore.
  * </p>
  */
 public class PatientController {
@@ -73,12 +78,17 @@ public class PatientController {
         }
         doctor.removeAvailability(date);
         Appointment appointment = new Appointment(null, patient, doctor, date, AppointmentStatus.PENDING, null, false);
-        AppointmentStore.addRecord(appointment);
+        synchronized (appointment) {
+            AppointmentStore.addRecord(appointment);
+            EventLogStore.append(DomainEventType.APPOINTMENT_BOOKED, appointment.getAppointmentId(), patientId, doctorId, null, 0);
+        }
         return appointment;
     }
 
     /**
      * Reschedules an appointment for a patient to the new date.
+     * The appointment is cancelled and replaced by a new PENDING appointment on the new date,
+     * and an email to the patient is written to the outbox and the event is appended to the event log in the same step.
      *
      * @param patientId     the user ID of the patient
      * @param appointmentId the ID of the appointment
@@ -92,25 +102,32 @@ public class PatientController {
             throw new Exception("Appointment not found");
         }
 
-        if (!appointment.getPatient().getUserId().equals(patientId) || appointment.getStatus() != AppointmentStatus.PENDING && appointment.getStatus() != AppointmentStatus.CONFIRMED) {
-            throw new Exception("Cannot reschedule appointment");
-        }
-
         Doctor doctor = appointment.getDoctor();
-        if (!doctor.isAvailable(newDate)) {
-            throw new Exception("Doctor not available on this date");
-        }
-        AppointmentStore.removeRecord(appointmentId);
+        Appointment newAppointment;
+        synchronized (appointment) {
+            if (!appointment.getPatient().getUserId().equals(patientId) || appointment.getStatus() != AppointmentStatus.PENDING && appointment.getStatus() != AppointmentStatus.CONFIRMED) {
+                throw new Exception("Cannot reschedule appointment");
+            }
+            if (!doctor.isAvailable(newDate)) {
+                throw new Exception("Doctor not available on this date");
+            }
+            appointment.setStatus(AppointmentStatus.CANCELLED);
+            AppointmentStore.removeRecord(appointmentId);
 
-        doctor.removeAvailability(newDate);
-        doctor.addAvailability(appointment.getDate());
-        Appointment newAppointment = new Appointment(null, appointment.getPatient(), doctor, newDate, AppointmentStatus.PENDING, null, false);
-        AppointmentStore.addRecord(newAppointment);
+            doctor.removeAvailability(newDate);
+            doctor.addAvailability(appointment.getDate());
+            newAppointment = new Appointment(null, appointment.getPatient(), doctor, newDate, AppointmentStatus.PENDING, null, false);
+            AppointmentStore.addRecord(newAppointment);
+            OutboxStore.addAppointmentRescheduledRecord(appointment, newAppointment);
+            EventLogStore.append(DomainEventType.APPOINTMENT_RESCHEDULED, newAppointment.getAppointmentId(), patientId, doctor.getUserId(), appointmentId, 0);
+        }
         return newAppointment;
     }
 
     /**
      * Cancels an appointment for a patient.
+     * An email to the patient is written to the outbox and the event is appended to the event log in the same step as the status change,
+     * and the cancellation is added to the persistent inbox of the doctor.
      *
      * @param patientId     the user ID of the patient
      * @param appointmentId the ID of the appointment
@@ -122,12 +139,18 @@ public class PatientController {
             throw new Exception("Appointment not found");
         }
 
-        if (!appointment.getPatient().getUserId().equals(patientId) || appointment.getStatus() != AppointmentStatus.PENDING && appointment.getStatus() != AppointmentStatus.CONFIRMED) {
-            throw new Exception("Cannot cancel appointment");
-        }
         Doctor doctor = appointment.getDoctor();
-        doctor.addAvailability(appointment.getDate());
-        appointment.setStatus(AppointmentStatus.CANCELLED);
+        synchronized (appointment) {
+            if (!appointment.getPatient().getUserId().equals(patientId) || appointment.getStatus() != AppointmentStatus.PENDING && appointment.getStatus() != AppointmentStatus.CONFIRMED) {
+                throw new Exception("Cannot cancel appointment");
+            }
+            doctor.addAvailability(appointment.getDate());
+            appointment.setStatus(AppointmentStatus.CANCELLED);
+            OutboxStore.addAppointmentStatusRecord(appointment);
+            EventLogStore.append(DomainEventType.APPOINTMENT_CANCELLED, appointmentId, patientId, doctor.getUserId(), null, 0);
+        }
+        InboxStore.addRecord(doctor.getUserId(), Notification.appointmentStatusChanged(appointmentId, patientId, doctor.getUserId(),
+            AppointmentStatus.CANCELLED.name(), appointment.getDate()));
     }
 
     /**
@@ -267,16 +290,15 @@ public class PatientController {
             throw new Exception("Appointment not found");
         }
 
-        if (!appointment.getPatient().getUserId().equals(patientId) || appointment.getStatus() != AppointmentStatus.COMPLETED || appointment.getIsRated()) {
-            throw new Exception("Cannot rate appointment");
+        synchronized (appointment) {
+            if (!appointment.getPatient().getUserId().equals(patientId) || appointment.getStatus() != AppointmentStatus.COMPLETED || appointment.getIsRated()) {
+                throw new Exception("Cannot rate appointment");
+            }
+            appointment.setIsRated(true);
+            EventLogStore.append(DomainEventType.APPOINTMENT_RATED, appointmentId, patientId, appointment.getDoctor().getUserId(), null, rating);
         }
 
         Doctor doctor = appointment.getDoctor();
-        int ratingCount = doctor.getRatingCount();
-        float oldRating = doctor.getRating();
-        float newRating = (oldRating * ratingCount + rating) / (ratingCount + 1);
-        doctor.setRating(newRating);
-        doctor.incrementRatingCount();
-        appointment.setIsRated(true);
+        doctor.addRating(rating);
     }
 }
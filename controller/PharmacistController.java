@@ -1,19 +1,28 @@
 package controller;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import model.AppointmentOutcomeRecord;
+import model.DispenseResult;
+import model.DomainEventType;
 import model.Medicine;
+import model.PickListItem;
 import model.Prescription;
 import model.PrescriptionStatus;
 import store.AppointmentOutcomeRecordStore;
+import store.EventLogStore;
 import store.MedicineStore;
 
 /**
  * The PharmacistController class provides Pharmacists with methods for managing appointment outcome records,
  * approving prescription requests, getting medicine inventory, and submitting replenishment requests.
  * <p>
- * It depends on AppointmentOutcomeRecord, Medicine, Prescription, AppointmentOutcomeRecordStore, and MedicineStore.
+ * It depends on AppointmentOutcomeRecord, DispenseResult, DomainEventType, Medicine, PickListItem, Prescription, AppointmentOutcomeRecordStore,
+ * EventLogStore, and MedicineStore.
  * </p>
  */
 public class PharmacistController {
@@ -32,12 +41,43 @@ public class PharmacistController {
         throw new Exception("Outcome Record is not found.");
     }
 
+    /**
+     * Claims the next appointment outcome record with pending prescriptions from the work queue.
+     * The record is not handed out to other pharmacists until it is released.
+     *
+     * @return the claimed appointment outcome record
+     * @throws Exception if no appointment outcome record has pending prescriptions
+     */
+    public static AppointmentOutcomeRecord claimNextPendingRecord() throws Exception{
+        AppointmentOutcomeRecord Record = AppointmentOutcomeRecordStore.claimPendingRecord();
+        if(Record != null){
+            return Record;
+        }
+        throw new Exception("No pending prescriptions.");
+    }
+
+    /**
+     * Releases a claimed appointment outcome record, which goes back to the work queue if it still has pending prescriptions.
+     *
+     * @param appointmentOutcomeRecordId the ID of the claimed appointment outcome record
+     */
+    public static void releasePendingRecord(String appointmentOutcomeRecordId){
+        AppointmentOutcomeRecordStore.releasePendingRecord(appointmentOutcomeRecordId);
+    }
+
     /**
      * Dispense a prescription of an appointment outcome record.
+     * <p>
+     * The prescribed quantity of the medicine is reserved and then committed as a single stock delta
+     * before the prescription is marked as DISPENSED, so concurrent dispensing never oversells the medicine.
+     * The expired lots of the medicine are discarded before the stock is reserved and again when it is committed,
+     * so the committed quantity is taken from the first-expiring lots that have not expired.
+     * </p>
      * 
      * @param appointmentOutcomeRecordId the ID of the appointment outcome record
      * @param prescriptionIdx            the index of the prescription to be dispensed in the prescription list of the appointment outcome record
-     * @throws Exception if the appointment outcome record is not found or the prescription index is out of bounds
+     * @throws Exception if the appointment outcome record is not found, the prescription index is out of bounds,
+     *                   the prescription has already been dispensed, or the medicine is out of stock
      */
     public static void approvePrescriptionRequest(String appointmentOutcomeRecordId, int prescriptionIdx) throws Exception{
         AppointmentOutcomeRecord Record = AppointmentOutcomeRecordStore.getRecord(appointmentOutcomeRecordId);
@@ -49,9 +89,127 @@ public class PharmacistController {
             throw new Exception("Invalid prescription Id.");
         }
         Prescription prescription = prescriptionList.get(prescriptionIdx);
-        prescription.setStatus(PrescriptionStatus.DISPENSED);
         Medicine medicine = prescription.getMedicine();
-        medicine.setStock(medicine.getStock() - 1);
+        int quantity = prescription.getQuantity();
+        medicine.discardExpiredLots(new Date());
+        if(!medicine.reserveStock(quantity)){
+            throw new Exception("Insufficient medicine stock.");
+        }
+        synchronized(Record){
+            if(prescription.getStatus() != PrescriptionStatus.PENDING){
+                medicine.releaseStock(quantity);
+                throw new Exception("Prescription has already been dispensed.");
+            }
+            if(!medicine.commitStock(quantity)){
+                throw new Exception("Insufficient medicine stock.");
+            }
+            Record.setPrescriptionStatus(prescriptionIdx, PrescriptionStatus.DISPENSED);
+            AppointmentOutcomeRecordStore.updatePendingQuantity(medicine, -quantity);
+        }
+        EventLogStore.append(DomainEventType.PRESCRIPTION_DISPENSED, appointmentOutcomeRecordId, null, null, medicine.getMedicineId(), quantity);
+    }
+
+    /**
+     * Dispenses all PENDING prescriptions of an appointment outcome record in one batch.
+     * <p>
+     * The quantities of the pending prescriptions are aggregated per medicine and the stock of each medicine is reserved
+     * in ascending medicine ID order. If any medicine is short of stock, all reservations are released and nothing is dispensed.
+     * Otherwise, the reservations are committed together and the pending prescriptions are marked as DISPENSED.
+     * As with a single prescription, the expired lots of each medicine are discarded first and the first-expiring lots are dispensed first.
+     * If a lot expires between reserving and committing and the remaining lots of its medicine cannot cover the reservation,
+     * the prescriptions of that medicine are left PENDING as short of stock while the others are dispensed.
+     * </p>
+     * 
+     * @param appointmentOutcomeRecordId the ID of the appointment outcome record
+     * @return the dispensing results of the prescriptions, in the same order as the prescription list of the appointment outcome record
+     * @throws Exception if the appointment outcome record is not found
+     */
+    public static List<DispenseResult> approveAllPrescriptionRequests(String appointmentOutcomeRecordId) throws Exception{
+        AppointmentOutcomeRecord Record = AppointmentOutcomeRecordStore.getRecord(appointmentOutcomeRecordId);
+        if(Record == null){
+            throw new Exception("Outcome Record is not found.");
+        }
+
+        synchronized(Record){
+            List<Prescription> prescriptionList = Record.getPrescriptions();
+            Map<String, Integer> quantities = new TreeMap<String, Integer>();
+            Map<String, Medicine> medicines = new TreeMap<String, Medicine>();
+            boolean[] isPending = new boolean[prescriptionList.size()];
+            for(int i = 0; i < prescriptionList.size(); i++) {
+                Prescription prescription = prescriptionList.get(i);
+                isPending[i] = prescription.getStatus() == PrescriptionStatus.PENDING;
+                if(isPending[i]){
+                    Medicine medicine = prescription.getMedicine();
+                    quantities.merge(medicine.getMedicineId(), prescription.getQuantity(), Integer::sum);
+                    medicines.put(medicine.getMedicineId(), medicine);
+                }
+            }
+
+            List<String> reserved = new ArrayList<String>();
+            List<String> shortage = new ArrayList<String>();
+            for(Map.Entry<String, Integer> entry : quantities.entrySet()) {
+                Medicine medicine = medicines.get(entry.getKey());
+                medicine.discardExpiredLots(new Date());
+                if(medicine.reserveStock(entry.getValue())){
+                    reserved.add(entry.getKey());
+                }
+                else{
+                    shortage.add(entry.getKey());
+                }
+            }
+
+            boolean isReserved = shortage.isEmpty();
+            if(!isReserved){
+                for(String medicineId : reserved) {
+                    medicines.get(medicineId).releaseStock(quantities.get(medicineId));
+                }
+            }
+            else{
+                for(String medicineId : reserved) {
+                    if(medicines.get(medicineId).commitStock(quantities.get(medicineId))){
+                        AppointmentOutcomeRecordStore.updatePendingQuantity(medicines.get(medicineId), -quantities.get(medicineId));
+                    }
+                    else{
+                        shortage.add(medicineId);
+                    }
+                }
+                for(int i = 0; i < prescriptionList.size(); i++) {
+                    Prescription prescription = prescriptionList.get(i);
+                    if(isPending[i] && !shortage.contains(prescription.getMedicine().getMedicineId())){
+                        Record.setPrescriptionStatus(i, PrescriptionStatus.DISPENSED);
+                        EventLogStore.append(DomainEventType.PRESCRIPTION_DISPENSED, appointmentOutcomeRecordId, null, null,
+                            prescription.getMedicine().getMedicineId(), prescription.getQuantity());
+                    }
+                }
+            }
+
+            List<DispenseResult> results = new ArrayList<DispenseResult>();
+            for(int i = 0; i < prescriptionList.size(); i++) {
+                if(!isPending[i]){
+                    results.add(DispenseResult.ALREADY_DISPENSED);
+                }
+                else if(shortage.contains(prescriptionList.get(i).getMedicine().getMedicineId())){
+                    results.add(DispenseResult.INSUFFICIENT_STOCK);
+                }
+                else if(isReserved){
+                    results.add(DispenseResult.DISPENSED);
+                }
+                else{
+                    results.add(DispenseResult.NOT_DISPENSED);
+                }
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Gets the dispensary pick list, i.e., the total quantity of each medicine required by all pending prescriptions,
+     * together with its stock level and shortfall.
+     *
+     * @return the list of pick list items in ascending medicine ID order
+     */
+    public static List<PickListItem> getPickList(){
+        return AppointmentOutcomeRecordStore.getPickList();
     }
 
     /**
@@ -63,6 +221,15 @@ public class PharmacistController {
         return MedicineStore.getRecords();
     }
 
+    /**
+     * Gets the list of medicines at or below their low stock level alert lines, which need replenishment the most first.
+     *
+     * @return the list of low stock medicines
+     */
+    public static List<Medicine> getLowStockMedicines(){
+        return MedicineStore.getLowStockRecords();
+    }
+
     /**
      * Submits a medicine replenishment request for the medicine with the specified ID.
      *
@@ -70,9 +237,7 @@ public class PharmacistController {
      * @throws Exception if the medicine is not found or the medicine is not below the low stock level alert line
      */
     public static void submitReplenishmentRequest(String medicinedId) throws Exception{
-        Medicine medicine = MedicineStore.getRecord(medicinedId);
-        if(medicine != null && medicine.getStock() <= medicine.getLowStockThreshold() && !medicine.getIsRequestingReplenishment()){
-            medicine.setIsRequestingReplenishment(true);
+        if(MedicineStore.addReplenishmentRequest(medicinedId)){
             return;
         }
         throw new Exception("Cannot sumbmit medicine replenishment request.");
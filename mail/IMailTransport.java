@@ -0,0 +1,21 @@
+package mail;
+
+import java.io.IOException;
+import java.util.List;
+
+import model.OutboxMessage;
+
+/**
+ * The IMailTransport interface defines the method that a mail transport, e.g., an SMTP client, must implement
+ * to deliver the outbound messages of the outbox.
+ */
+public interface IMailTransport {
+    /**
+     * Delivers a batch of messages in a single session with the mail server.
+     * Either all messages of the batch are accepted by the mail server, or an exception is thrown.
+     *
+     * @param batch The messages to be delivered
+     * @throws IOException If the mail server cannot be reached or rejects the batch
+     */
+    public void send(List<OutboxMessage> batch) throws IOException;
+}
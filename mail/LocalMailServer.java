@@ -0,0 +1,125 @@
+package mail;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.OutboxMessage;
+
+/**
+ * The LocalMailServer class is an in-process stand-in for an SMTP server, which keeps the delivered messages in memory.
+ * <p>
+ * It simulates the latency of a mail server, i.e., a fixed cost for each session and a cost for each message,
+ * and can be told to reject the next batches, so the mail relay can be exercised without a real mail server.
+ * Only the last {@value #MAX_KEPT_MESSAGES} delivered messages are kept, so it can run for as long as the application does.
+ * </p>
+ */
+public class LocalMailServer implements IMailTransport {
+    /**
+     * The maximum number of delivered messages kept in memory.
+     */
+    public static final int MAX_KEPT_MESSAGES = 1000;
+
+    /**
+     * The simulated latency of opening a session in milliseconds.
+     */
+    private long sessionLatencyMillis;
+
+    /**
+     * The simulated latency of accepting a message in milliseconds.
+     */
+    private long messageLatencyMillis;
+
+    /**
+     * The number of the next batches that will be rejected.
+     */
+    private int rejectedBatchCount;
+
+    /**
+     * The last {@value #MAX_KEPT_MESSAGES} messages delivered to the server, in the order they were accepted.
+     */
+    private ArrayDeque<OutboxMessage> deliveredMessages;
+
+    /**
+     * The number of messages delivered to the server, including those no longer kept.
+     */
+    private long deliveredCount;
+
+    /**
+     * Constructs a new LocalMailServer without latency.
+     */
+    public LocalMailServer() {
+        this(0, 0);
+    }
+
+    /**
+     * Constructs a new LocalMailServer with the specified simulated latency.
+     *
+     * @param sessionLatencyMillis The simulated latency of opening a session in milliseconds
+     * @param messageLatencyMillis The simulated latency of accepting a message in milliseconds
+     */
+    public LocalMailServer(long sessionLatencyMillis, long messageLatencyMillis) {
+        this.sessionLatencyMillis = sessionLatencyMillis;
+        this.messageLatencyMillis = messageLatencyMillis;
+        this.deliveredMessages = new ArrayDeque<OutboxMessage>();
+    }
+
+    /**
+     * Implements the IMailTransport interface.
+     * Accepts a batch of messages after the simulated latency, unless the batch is to be rejected.
+     *
+     * @param batch The messages to be delivered
+     * @throws IOException If the batch is rejected or the delivery is interrupted
+     */
+    public void send(List<OutboxMessage> batch) throws IOException {
+        synchronized (this) {
+            if (rejectedBatchCount > 0) {
+                rejectedBatchCount--;
+                throw new IOException("Mail server unavailable");
+            }
+        }
+        try {
+            Thread.sleep(sessionLatencyMillis + messageLatencyMillis * batch.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Mail delivery interrupted");
+        }
+        synchronized (this) {
+            for (OutboxMessage message : batch) {
+                if (deliveredMessages.size() == MAX_KEPT_MESSAGES) {
+                    deliveredMessages.poll();
+                }
+                deliveredMessages.add(message);
+            }
+            deliveredCount += batch.size();
+        }
+    }
+
+    /**
+     * Makes the server reject the specified number of the next batches.
+     *
+     * @param count The number of the next batches to be rejected
+     */
+    public synchronized void rejectNextBatches(int count) {
+        this.rejectedBatchCount = count;
+    }
+
+    /**
+     * Getter for the last {@value #MAX_KEPT_MESSAGES} messages delivered to the server.
+     *
+     * @return A copy of the list of the last delivered messages, in the order they were accepted
+     */
+    public synchronized List<OutboxMessage> getDeliveredMessages() {
+        return new ArrayList<OutboxMessage>(deliveredMessages);
+    }
+
+    /**
+     * Getter for the number of messages delivered to the server, including those no longer kept.
+     *
+     * @return The number of delivered messages
+     */
+    public synchronized long getDeliveredCount() {
+        return deliveredCount;
+    }
+}
@@ -0,0 +1,258 @@
+package mail;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import model.OutboxMessage;
+import store.OutboxStore;
+
+/**
+ * The MailRelay class delivers the PENDING messages of the outbox through a mail transport in the background.
+ * <p>
+ * The due messages are claimed from the OutboxStore and sent in batches, one session with the mail server per batch.
+ * When a batch fails, each of its messages is retried after an exponential backoff, i.e., the delay doubles after each failed attempt,
+ * and a message is marked as FAILED after {@value #MAX_ATTEMPTS} failed attempts.
+ * </p>
+ * <p>
+ * The relay counts the delivered batches and messages, the retries and the time spent sending,
+ * so that its throughput can be compared across batch sizes.
+ * </p>
+ */
+public class MailRelay {
+    /**
+     * The default maximum number of messages sent in a batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
+    /**
+     * The maximum number of delivery attempts of a message.
+     */
+    public static final int MAX_ATTEMPTS = 5;
+
+    /**
+     * The delay before the first retry of a message in milliseconds.
+     */
+    public static final long BASE_BACKOFF_MILLIS = 1000;
+
+    /**
+     * The longest delay before a retry of a message in milliseconds.
+     */
+    public static final long MAX_BACKOFF_MILLIS = 5 * 60 * 1000;
+
+    /**
+     * The interval between two polls of the outbox in milliseconds.
+     */
+    public static final long POLL_INTERVAL_MILLIS = 500;
+
+    /**
+     * The transport that the messages are delivered through.
+     */
+    private IMailTransport transport;
+
+    /**
+     * The maximum number of messages sent in a batch.
+     */
+    private int batchSize;
+
+    /**
+     * The executor that polls the outbox in the background, or null if the relay is not started.
+     */
+    private ScheduledExecutorService executor;
+
+    /**
+     * The number of batches delivered.
+     */
+    private long batchCount;
+
+    /**
+     * The number of messages delivered.
+     */
+    private long sentCount;
+
+    /**
+     * The number of failed delivery attempts that were retried.
+     */
+    private long retryCount;
+
+    /**
+     * The number of messages marked as FAILED.
+     */
+    private long failedCount;
+
+    /**
+     * The total time spent sending batches, including the failed ones, in nanoseconds.
+     */
+    private long sendTime;
+
+    /**
+     * Constructs a new MailRelay with the specified transport and batch size.
+     *
+     * @param transport The transport that the messages are delivered through
+     * @param batchSize The maximum number of messages sent in a batch
+     */
+    public MailRelay(IMailTransport transport, int batchSize) {
+        this.transport = transport;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Starts polling the outbox in the background every {@value #POLL_INTERVAL_MILLIS} milliseconds.
+     * The polling thread is a daemon thread, so it does not keep the application running.
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mail-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> relay(), 0, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops polling the outbox. The batch being sent, if any, is completed.
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     * Sends all messages of the outbox that are currently due, batch by batch.
+     * A batch fails if the transport throws any exception, including a runtime exception,
+     * so a claimed batch is always either sent or retried, and the background polling is never cancelled by a failed batch.
+     *
+     * @return The number of messages delivered
+     */
+    public int relay() {
+        int delivered = 0;
+        while (true) {
+            List<OutboxMessage> batch = OutboxStore.claimDueRecords(batchSize, System.currentTimeMillis());
+            if (batch.isEmpty()) {
+                return delivered;
+            }
+            long start = System.nanoTime();
+            try {
+                transport.send(batch);
+            } catch (IOException | RuntimeException e) {
+                recordFailure(batch, System.nanoTime() - start);
+                continue;
+            }
+            for (OutboxMessage message : batch) {
+                OutboxStore.markSent(message);
+            }
+            recordSuccess(batch.size(), System.nanoTime() - start);
+            delivered += batch.size();
+        }
+    }
+
+    /**
+     * Calculates the delay before the next attempt of a message with exponential backoff.
+     *
+     * @param attempts The number of failed attempts of the message, including the latest one
+     * @return The delay in milliseconds
+     */
+    private static long getBackoff(int attempts) {
+        if (attempts > 20) {
+            return MAX_BACKOFF_MILLIS;
+        }
+        return Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << (attempts - 1));
+    }
+
+    /**
+     * Records a delivered batch.
+     *
+     * @param size The number of messages in the batch
+     * @param elapsed The time spent sending the batch in nanoseconds
+     */
+    private synchronized void recordSuccess(int size, long elapsed) {
+        batchCount++;
+        sentCount += size;
+        sendTime += elapsed;
+    }
+
+    /**
+     * Records a failed batch, and reschedules each of its messages or marks it as FAILED if it has no attempts left.
+     *
+     * @param batch The messages of the batch
+     * @param elapsed The time spent sending the batch in nanoseconds
+     */
+    private synchronized void recordFailure(List<OutboxMessage> batch, long elapsed) {
+        sendTime += elapsed;
+        long now = System.currentTimeMillis();
+        for (OutboxMessage message : batch) {
+            int attempts = message.getAttempts() + 1;
+            if (attempts >= MAX_ATTEMPTS) {
+                OutboxStore.markFailed(message);
+                failedCount++;
+            } else {
+                OutboxStore.rescheduleRecord(message, now + getBackoff(attempts));
+                retryCount++;
+            }
+        }
+    }
+
+    /**
+     * Getter for the maximum number of messages sent in a batch.
+     *
+     * @return The maximum number of messages sent in a batch
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Getter for the number of batches delivered.
+     *
+     * @return The number of batches delivered
+     */
+    public synchronized long getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * Getter for the number of messages delivered.
+     *
+     * @return The number of messages delivered
+     */
+    public synchronized long getSentCount() {
+        return sentCount;
+    }
+
+    /**
+     * Getter for the number of failed delivery attempts that were retried.
+     *
+     * @return The number of retries
+     */
+    public synchronized long getRetryCount() {
+        return retryCount;
+    }
+
+    /**
+     * Getter for the number of messages marked as FAILED.
+     *
+     * @return The number of failed messages
+     */
+    public synchronized long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * Calculates the throughput of the relay, i.e., the number of messages delivered per second spent sending.
+     *
+     * @return The number of messages delivered per second, or 0 if nothing has been sent
+     */
+    public synchronized double getThroughput() {
+        if (sendTime == 0) {
+            return 0;
+        }
+        return sentCount * 1e9 / sendTime;
+    }
+}
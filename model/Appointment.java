@@ -1,8 +1,8 @@
 package model;
 
 import java.util.Date;
-import java.util.HashSet;
 
+import observer.EventBus;
 import observer.IPublisher;
 import observer.ISubscriber;
 import observer.Notification;
@@ -10,8 +10,23 @@ import observer.Notification;
 /**
  * The Appointment class represents an appointment, which associates a Patient with a Doctor.
  * It is a Publisher and notifies Subscribers when the status of the appointment changes.
+ * <p>
+ * The subscriptions of all appointments are kept in a central event bus keyed by appointment ID,
+ * so that only the appointments that actually have subscribers take up memory for them.
+ * The subscriptions of an appointment are cleared once it is cancelled or completed.
+ * </p>
  */
 public class Appointment implements IPublisher {
+    /**
+     * The topic of the subscriptions to appointments in the central event bus.
+     */
+    private static final String TOPIC = "Appointment";
+
+    /**
+     * The central event bus of the subscriptions to all appointments, keyed by appointment ID.
+     */
+    private static EventBus subscriptions = new EventBus();
+
     /**
      * The ID of the appointment.
      */
@@ -47,11 +62,6 @@ public class Appointment implements IPublisher {
      */
     private boolean isRated;
 
-    /**
-     * The set of subscribers to the appointment.
-     */
-    private HashSet<ISubscriber> subscribers;
-
     /**
      * Constructs a new Appointment with the specified details.
      *
@@ -71,7 +81,6 @@ public class Appointment implements IPublisher {
         this.status = status;
         this.outcomeRecordId = outcomeRecordId;
         this.isRated = isRated;
-        this.subscribers = new HashSet<ISubscriber>();
     }
 
     /**
@@ -124,13 +133,19 @@ public class Appointment implements IPublisher {
 
     /**
      * Setter for the status of the appointment.
-     * Notifies subscribers when the status changes.
+     * Notifies subscribers, if any, when the status changes.
+     * The subscriptions are cleared after the notification if the appointment is cancelled or completed.
      * @param newstatus the new status of the appointment
      */
     public void setStatus(AppointmentStatus newstatus) {
         this.status = newstatus;
-        Notification notification = new Notification("Your Appointment " + appointmentId + " has been " + newstatus);
-        notifySubscribers(notification);
+        if (!subscriptions.hasSubscribers(TOPIC, appointmentId)) {
+            return;
+        }
+        notifySubscribers(Notification.appointmentStatusChanged(appointmentId, patient.getUserId(), doctor.getUserId(), newstatus.name(), date));
+        if (newstatus == AppointmentStatus.CANCELLED || newstatus == AppointmentStatus.COMPLETED) {
+            unsubscribeAll();
+        }
     }
 
     /**
@@ -143,13 +158,15 @@ public class Appointment implements IPublisher {
 
     /**
      * Setter for the ID of the outcome record of the appointment.
-     * Notifies subscribers when an outcome record is added.
+     * Notifies subscribers, if any, when an outcome record is added.
      * @param outcomeRecordId the new ID of the outcome record of the appointment
      */
     public void setOutcomeRecordId(String outcomeRecordId) {
         this.outcomeRecordId = outcomeRecordId;
-        Notification notification = new Notification("Your Appointment " + appointmentId + " has an outcome record");
-        notifySubscribers(notification);
+        if (!subscriptions.hasSubscribers(TOPIC, appointmentId)) {
+            return;
+        }
+        notifySubscribers(Notification.appointmentOutcomeRecorded(appointmentId, patient.getUserId(), doctor.getUserId()));
     }
 
     /**
@@ -170,10 +187,20 @@ public class Appointment implements IPublisher {
 
     /**
      * Registers a subscriber to the appointment status change or outcome record creation notifications.
+     * The appointment must have been assigned its ID, since the subscription is keyed by it.
      * @param subscriber the subscriber to register
      */
     public void subscribe(ISubscriber subscriber) {
-        subscribers.add(subscriber);
+        subscriptions.subscribe(TOPIC, appointmentId, subscriber);
+    }
+
+    /**
+     * Registers a subscriber to the status change and outcome record creation notifications of all appointments.
+     * The subscription is not cleared when an appointment is cancelled, completed or removed.
+     * @param subscriber the subscriber to register
+     */
+    public static void subscribeToAllAppointments(ISubscriber subscriber) {
+        subscriptions.subscribe(TOPIC, null, subscriber);
     }
 
     /**
@@ -181,7 +208,15 @@ public class Appointment implements IPublisher {
      * @param subscriber the subscriber to unregister
      */
     public void unsubscribe(ISubscriber subscriber) {
-        subscribers.remove(subscriber);
+        subscriptions.unsubscribe(TOPIC, appointmentId, subscriber);
+    }
+
+    /**
+     * Unregisters all subscribers from the appointment status change or outcome record creation notifications,
+     * e.g., when the appointment is cancelled, completed or removed.
+     */
+    public void unsubscribeAll() {
+        subscriptions.unsubscribeAll(TOPIC, appointmentId);
     }
 
     /**
@@ -189,8 +224,6 @@ public class Appointment implements IPublisher {
      * @param notification the notification to send to subscribers
      */
     public void notifySubscribers(Notification notification) {
-        for (ISubscriber subscriber : subscribers) {
-            subscriber.update(notification);
-        }
+        subscriptions.publish(TOPIC, appointmentId, notification);
     }
 }
@@ -1,5 +1,7 @@
 package model;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -33,6 +35,46 @@ public class AppointmentOutcomeRecord {
      */
     private String notes;
 
+    /**
+     * The number of billing line items in the appointment outcome record.
+     */
+    private int lineCount;
+
+    /**
+     * The medicine IDs of the billing line items, snapshotted when the prescriptions are added.
+     */
+    private String[] lineMedicineIds;
+
+    /**
+     * The medicine names of the billing line items, snapshotted when the prescriptions are added.
+     */
+    private String[] lineMedicineNames;
+
+    /**
+     * The unit prices in cents of the billing line items, snapshotted when the prescriptions are added.
+     */
+    private long[] lineUnitPricesInCents;
+
+    /**
+     * The quantities of the billing line items.
+     */
+    private int[] lineQuantities;
+
+    /**
+     * The running subtotal amount of all prescriptions in the appointment outcome record in cents.
+     */
+    private long subtotalInCents;
+
+    /**
+     * The running due amount of the pending prescriptions in the appointment outcome record in cents.
+     */
+    private long dueInCents;
+
+    /**
+     * The number of pending prescriptions in the appointment outcome record.
+     */
+    private int pendingCount;
+
     /**
      * Constructs a new AppointmentOutcomeRecord with the specified details.
      *
@@ -46,8 +88,16 @@ public class AppointmentOutcomeRecord {
         this.appointmentOutcomeRecordId = appointmentOutcomeRecordId;
         this.date = date;
         this.serviceType = serviceType;
-        this.prescriptions = prescriptions;
+        this.prescriptions = new ArrayList<Prescription>();
         this.notes = notes;
+        this.lineCount = 0;
+        this.lineMedicineIds = new String[prescriptions.size()];
+        this.lineMedicineNames = new String[prescriptions.size()];
+        this.lineUnitPricesInCents = new long[prescriptions.size()];
+        this.lineQuantities = new int[prescriptions.size()];
+        for (Prescription prescription : prescriptions) {
+            addPrescription(prescription);
+        }
     }
 
     /**
@@ -90,13 +140,131 @@ public class AppointmentOutcomeRecord {
         return prescriptions;
     }
 
+    /**
+     * Adds a prescription to the appointment outcome record and updates the running subtotal and due amounts.
+     * The medicine ID, name, unit price and quantity of the prescription are snapshotted into an immutable billing line item,
+     * so later changes to the medicine do not affect the bill of this appointment outcome record.
+     * @param prescription the prescription to be added
+     */
+    public synchronized void addPrescription(Prescription prescription) {
+        if (lineCount == lineQuantities.length) {
+            int capacity = Math.max(4, lineCount * 2);
+            lineMedicineIds = Arrays.copyOf(lineMedicineIds, capacity);
+            lineMedicineNames = Arrays.copyOf(lineMedicineNames, capacity);
+            lineUnitPricesInCents = Arrays.copyOf(lineUnitPricesInCents, capacity);
+            lineQuantities = Arrays.copyOf(lineQuantities, capacity);
+        }
+        Medicine medicine = prescription.getMedicine();
+        lineMedicineIds[lineCount] = medicine.getMedicineId();
+        lineMedicineNames[lineCount] = medicine.getName();
+        lineUnitPricesInCents[lineCount] = medicine.getPriceInCents();
+        lineQuantities[lineCount] = prescription.getQuantity();
+        long amount = getLineAmountInCents(lineCount);
+        lineCount++;
+
+        prescriptions.add(prescription);
+        subtotalInCents += amount;
+        if (prescription.getStatus() == PrescriptionStatus.PENDING) {
+            dueInCents += amount;
+            pendingCount++;
+        }
+    }
+
     /**
      * Updates the prescription status of a prescription in the appointment outcome record.
+     * The running due amount and the number of pending prescriptions are updated when the prescription moves between PENDING and DISPENSED.
      * @param idx the index of the prescription in the list of prescriptions of the appointment outcome record
      * @param status the new status of the prescription
      */
-    public void setPrescriptionStatus(int idx, PrescriptionStatus status) {
-        prescriptions.get(idx).setStatus(status);
+    public synchronized void setPrescriptionStatus(int idx, PrescriptionStatus status) {
+        Prescription prescription = prescriptions.get(idx);
+        PrescriptionStatus oldStatus = prescription.getStatus();
+        prescription.setStatus(status);
+        long amount = getLineAmountInCents(idx);
+        if (oldStatus == PrescriptionStatus.PENDING && status == PrescriptionStatus.DISPENSED) {
+            dueInCents -= amount;
+            pendingCount--;
+        } else if (oldStatus == PrescriptionStatus.DISPENSED && status == PrescriptionStatus.PENDING) {
+            dueInCents += amount;
+            pendingCount++;
+        }
+    }
+
+    /**
+     * Getter for the number of billing line items in the appointment outcome record.
+     * @return the number of billing line items
+     */
+    public synchronized int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Getter for the medicine ID of a billing line item.
+     * @param idx the index of the billing line item, which is the same as the index of its prescription
+     * @return the medicine ID of the billing line item
+     */
+    public synchronized String getLineMedicineId(int idx) {
+        return lineMedicineIds[idx];
+    }
+
+    /**
+     * Getter for the medicine name of a billing line item.
+     * @param idx the index of the billing line item, which is the same as the index of its prescription
+     * @return the medicine name of the billing line item
+     */
+    public synchronized String getLineMedicineName(int idx) {
+        return lineMedicineNames[idx];
+    }
+
+    /**
+     * Getter for the unit price of a billing line item.
+     * @param idx the index of the billing line item, which is the same as the index of its prescription
+     * @return the unit price of the billing line item in cents
+     */
+    public synchronized long getLineUnitPriceInCents(int idx) {
+        return lineUnitPricesInCents[idx];
+    }
+
+    /**
+     * Getter for the quantity of a billing line item.
+     * @param idx the index of the billing line item, which is the same as the index of its prescription
+     * @return the quantity of the billing line item
+     */
+    public synchronized int getLineQuantity(int idx) {
+        return lineQuantities[idx];
+    }
+
+    /**
+     * Calculates the amount of a billing line item, i.e., the unit price multiplied by the quantity.
+     * @param idx the index of the billing line item, which is the same as the index of its prescription
+     * @return the amount of the billing line item in cents
+     */
+    public synchronized long getLineAmountInCents(int idx) {
+        return lineUnitPricesInCents[idx] * lineQuantities[idx];
+    }
+
+    /**
+     * Getter for the subtotal amount of all prescriptions in the appointment outcome record.
+     * @return the subtotal amount in cents
+     */
+    public synchronized long getSubtotalInCents() {
+        return subtotalInCents;
+    }
+
+    /**
+     * Getter for the due amount of the pending prescriptions in the appointment outcome record.
+     * @return the due amount in cents
+     */
+    public synchronized long getDueInCents() {
+        return dueInCents;
+    }
+
+    /**
+     * Getter for the number of pending prescriptions in the appointment outcome record.
+     * @return the number of pending prescriptions
+     */
+    public synchronized int getPendingCount() {
+        return pendingCount;
     }
 
     /**
@@ -1,14 +1,22 @@
 package model;
 
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.List;
 
 /**
  * The Bill class represents a bill for a patient's appointment outcome record.
- * It supports calculating total amount and due amount for the appointment outcome record and generating a (terminal) printable bill.
+ * It supports retrieving the subtotal amount and due amount of the appointment outcome record and generating a (terminal) printable bill.
  */
 public class Bill {
+    /**
+     * The shared formatter for the date of the bill.
+     * Unlike SimpleDateFormat, it is immutable and thread-safe, so it can be reused across bills and threads.
+     */
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
     /**
      * The appointment outcome record associated with the bill.
      */
@@ -48,55 +56,80 @@ public class Bill {
     }
 
     /**
-     * Calculates the subtotal amount of the bill.
-     * @return the subtotal amount of the bill
+     * Getter for the subtotal amount of the bill.
+     * @return the subtotal amount of the bill in cents
      */
-    public float getSubtotal() {
-        float subtotal = 0;
-        for (Prescription prescription : outcomeRecord.getPrescriptions()) {
-            subtotal += prescription.getMedicine().getPrice();
-        }
-        return subtotal;
+    public long getSubtotalInCents() {
+        return outcomeRecord.getSubtotalInCents();
     }
 
     /**
-     * Calculates the due amount of the bill.
+     * Getter for the due amount of the bill.
      * The dispensed medications are excluded from the due amount.
-     * @return the due amount of the bill
+     * @return the due amount of the bill in cents
      */
-    public float getDue() {
-        float due = 0;
-        for (Prescription prescription : outcomeRecord.getPrescriptions()) {
-            if (prescription.getStatus() == PrescriptionStatus.PENDING) {
-                due += prescription.getMedicine().getPrice();
-            }
+    public long getDueInCents() {
+        return outcomeRecord.getDueInCents();
+    }
+
+    /**
+     * Appends an amount in cents to a StringBuilder in the format "d.cc".
+     * @param sb    the StringBuilder to append to
+     * @param cents the amount in cents
+     */
+    private static void appendAmount(StringBuilder sb, long cents) {
+        if (cents < 0) {
+            sb.append('-');
+            cents = -cents;
+        }
+        long fraction = cents % 100;
+        sb.append(cents / 100).append('.');
+        if (fraction < 10) {
+            sb.append('0');
         }
-        return due;
+        sb.append(fraction);
     }
 
     /**
-     * Generates a printable bill associated with the appointment outcome record.
-     * @return a printable String for the bill
+     * Appends the printable bill associated with the appointment outcome record to a StringBuilder.
+     * The prescriptions are rendered from the billing line items snapshotted in the appointment outcome record.
+     * It does not allocate any date formatter or format string, so it is suitable for rendering bills in bulk.
+     * @param sb the StringBuilder to append to
      */
-    public String toString() {
-        StringBuilder sb = new StringBuilder();
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
+    public void appendTo(StringBuilder sb) {
         sb.append("======================= Bill =======================\n");
-        sb.append("Date: ").append(sdf.format(getDate())).append("\n");
+        sb.append("Date: ");
+        DATE_FORMATTER.formatTo(LocalDate.ofInstant(getDate().toInstant(), ZoneId.systemDefault()), sb);
+        sb.append("\n");
         sb.append("Service Type: ").append(getServiceType()).append("\n");
         sb.append("Prescriptions:\n");
-        List<Prescription> prescriptions = getPrescriptions();
-        if (prescriptions.isEmpty()) {
+        int lineCount = outcomeRecord.getLineCount();
+        if (lineCount == 0) {
             sb.append("    (Empty)\n");
         }
-        for (Prescription prescription : prescriptions) {
-            sb.append("  - ").append(prescription.getMedicine().getName()).append("\t$").append(prescription.getMedicine().getPrice()).append("\n");
+        for (int i = 0; i < lineCount; i++) {
+            sb.append("  - ").append(outcomeRecord.getLineMedicineName(i)).append(" x").append(outcomeRecord.getLineQuantity(i)).append("\t$");
+            appendAmount(sb, outcomeRecord.getLineAmountInCents(i));
+            sb.append("\n");
         }
-        sb.append("Subtotal: $").append(String.format("%.2f", getSubtotal())).append("\n");
-        sb.append("Due: $").append(String.format("%.2f", getDue())).append("\n");
+        sb.append("Subtotal: $");
+        appendAmount(sb, getSubtotalInCents());
+        sb.append("\n");
+        sb.append("Due: $");
+        appendAmount(sb, getDueInCents());
+        sb.append("\n");
         sb.append("====================================================\n");
         sb.append("Notes: Dispensed medications are excluded from the due amount.\n");
         sb.append("====================================================\n");
+    }
+
+    /**
+     * Generates a printable bill associated with the appointment outcome record.
+     * @return a printable String for the bill
+     */
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        appendTo(sb);
         return sb.toString();
     }
 }
@@ -0,0 +1,99 @@
+package model;
+
+/**
+ * The ConsumptionTracker class represents the recent dispensing history of a medicine, which is part of a Medicine.
+ * It keeps a ring of daily buckets of dispensed quantities, updated in O(1) per dispensing event,
+ * and estimates the daily consumption rate with an exponentially weighted moving average.
+ */
+public class ConsumptionTracker {
+    /**
+     * The number of completed days that the consumption rate is estimated from.
+     */
+    public static final int WINDOW_DAYS = 28;
+
+    /**
+     * The number of daily buckets kept in the ring of dispensed quantities, i.e., the completed days of the window and the current day.
+     */
+    private static final int BUCKET_COUNT = WINDOW_DAYS + 1;
+
+    /**
+     * The smoothing factor of the exponentially weighted moving average.
+     * A larger value puts more weight on the more recent days.
+     */
+    public static final double SMOOTHING_FACTOR = 0.3;
+
+    /**
+     * The number of milliseconds in a day.
+     */
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    /**
+     * The day number (days since the epoch) that each bucket of the ring currently holds.
+     */
+    private long[] bucketDays;
+
+    /**
+     * The quantity dispensed on the day of each bucket of the ring.
+     */
+    private long[] bucketQuantities;
+
+    /**
+     * Constructs a new ConsumptionTracker with an empty ring of dispensed quantities.
+     */
+    public ConsumptionTracker() {
+        this.bucketDays = new long[BUCKET_COUNT];
+        this.bucketQuantities = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            bucketDays[i] = -1;
+        }
+    }
+
+    /**
+     * Converts a timestamp into a day number.
+     * @param timeMillis the timestamp in milliseconds since the epoch
+     * @return the number of days since the epoch
+     */
+    private static long toDay(long timeMillis) {
+        return Math.floorDiv(timeMillis, MILLIS_PER_DAY);
+    }
+
+    /**
+     * Records a dispensing event of the specified quantity at the specified time.
+     * @param quantity   the dispensed quantity
+     * @param timeMillis the time of the dispensing event in milliseconds since the epoch
+     */
+    public synchronized void record(int quantity, long timeMillis) {
+        long day = toDay(timeMillis);
+        int slot = (int) Math.floorMod(day, (long) BUCKET_COUNT);
+        if (bucketDays[slot] != day) {
+            bucketDays[slot] = day;
+            bucketQuantities[slot] = 0;
+        }
+        bucketQuantities[slot] += quantity;
+    }
+
+    /**
+     * Getter for the quantity dispensed on the specified day.
+     * @param day the day number (days since the epoch)
+     * @return the quantity dispensed on the day, or 0 if the day is outside the ring
+     */
+    private long getQuantity(long day) {
+        int slot = (int) Math.floorMod(day, (long) BUCKET_COUNT);
+        return bucketDays[slot] == day ? bucketQuantities[slot] : 0;
+    }
+
+    /**
+     * Calculates the exponentially weighted moving average of the daily dispensed quantities
+     * over the last {@value #WINDOW_DAYS} completed days before the specified time.
+     * @param nowMillis the current time in milliseconds since the epoch
+     * @return the estimated daily consumption rate
+     */
+    public synchronized double getDailyRate(long nowMillis) {
+        long today = toDay(nowMillis);
+        double rate = 0;
+        for (long day = today - WINDOW_DAYS; day < today; day++) {
+            rate = SMOOTHING_FACTOR * getQuantity(day) + (1 - SMOOTHING_FACTOR) * rate;
+        }
+        return rate;
+    }
+}
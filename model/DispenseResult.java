@@ -0,0 +1,8 @@
+package model;
+
+/**
+ * Enumeration representing the result of dispensing a prescription in a batch.
+ */
+public enum DispenseResult {
+    DISPENSED, ALREADY_DISPENSED, INSUFFICIENT_STOCK, NOT_DISPENSED
+}
@@ -3,6 +3,7 @@ package model;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The Doctor class represents a doctor in the system.
@@ -16,14 +17,16 @@ public class Doctor extends User implements Comparable<Doctor> {
     private String specialty;
 
     /**
-     * The number of ratings received by the doctor.
+     * The rating accumulator of the doctor.
+     * The exact sum of all rating scores is packed into the upper 32 bits and the number of ratings into the lower 32 bits,
+     * so that both are read together with a single atomic read and updated together with a single atomic add.
      */
-    private int ratingCount;
+    private AtomicLong ratingAccumulator;
 
     /**
-     * The average rating of the doctor.
+     * The rating distribution and recent rating trend of the doctor.
      */
-    private float rating;
+    private RatingStatistics ratingStatistics;
 
     /**
      * The availability of the doctor for appointments.
@@ -48,18 +51,49 @@ public class Doctor extends User implements Comparable<Doctor> {
     public Doctor(String userId, String password, UserRole role, String name, boolean isMale, int age, String email, String specialty, int ratingCount, float rating) {
         super(userId, password, role, name, isMale, age, email);
         this.specialty = specialty;
-        this.ratingCount = ratingCount;
-        this.rating = rating;
+        this.ratingAccumulator = new AtomicLong(pack(Math.round(rating * ratingCount), ratingCount));
+        this.ratingStatistics = new RatingStatistics();
         this.availability = new HashMap<Date, Boolean>();
     }
 
+    /**
+     * Packs a rating sum and a rating count into a single long value.
+     * @param sum   the sum of all rating scores
+     * @param count the number of ratings
+     * @return the packed value
+     */
+    private static long pack(long sum, long count) {
+        return (sum << 32) | (count & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Extracts the rating sum from a packed value.
+     * @param packed the packed value
+     * @return the sum of all rating scores
+     */
+    private static long unpackSum(long packed) {
+        return packed >>> 32;
+    }
+
+    /**
+     * Extracts the rating count from a packed value.
+     * @param packed the packed value
+     * @return the number of ratings
+     */
+    private static long unpackCount(long packed) {
+        return packed & 0xFFFFFFFFL;
+    }
+
     /**
      * Compares this doctor with another doctor based on their ratings.
+     * The average ratings are compared exactly by cross-multiplying the rating sums and counts of a consistent snapshot of each doctor.
      * @param o the doctor to be compared
      * @return -1, 0, or 1 if this doctor is rated higher, equal, or lower than the other doctor, respectively
      */
     public int compareTo(Doctor o) {
-        float diff = this.rating - o.rating;
+        long mine = this.ratingAccumulator.get();
+        long other = o.ratingAccumulator.get();
+        long diff = unpackSum(mine) * Math.max(unpackCount(other), 1) - unpackSum(other) * Math.max(unpackCount(mine), 1);
         if (diff > 0)
             return -1;
         else if (diff < 0)
@@ -89,30 +123,50 @@ public class Doctor extends User implements Comparable<Doctor> {
      * @return the number of ratings received by the doctor
      */
     public int getRatingCount() {
-        return ratingCount;
+        return (int) unpackCount(ratingAccumulator.get());
     }
 
     /**
-     * Increments the number of ratings received by the doctor by 1.
+     * Getter for the exact sum of all rating scores received by the doctor.
+     * @return the sum of all rating scores received by the doctor
      */
-    public void incrementRatingCount() {
-        ratingCount++;
+    public long getRatingSum() {
+        return unpackSum(ratingAccumulator.get());
     }
 
     /**
      * Getter for the average rating of the doctor.
-     * @return the average rating of the doctor
+     * The average is computed from a single consistent snapshot of the rating sum and count.
+     * @return the average rating of the doctor, or 0 if the doctor has not been rated
      */
     public float getRating() {
-        return rating;
+        long packed = ratingAccumulator.get();
+        long count = unpackCount(packed);
+        if (count == 0) {
+            return 0;
+        }
+        return (float) ((double) unpackSum(packed) / count);
+    }
+
+    /**
+     * Getter for the rating distribution and recent rating trend of the doctor.
+     * Only the ratings received through {@link #addRating(int)} are recorded, i.e., the initial average rating is not broken down.
+     * @return the rating statistics of the doctor
+     */
+    public RatingStatistics getRatingStatistics() {
+        return ratingStatistics;
     }
 
     /**
-     * Setter for the average rating of the doctor.
-     * @param rating the new average rating of the doctor
+     * Adds a rating score to the doctor.
+     * The rating sum and count are updated together atomically without locking, so concurrent ratings are never lost.
+     * The score is also recorded in the rating statistics of the doctor.
+     * @param score the rating score to be added
      */
-    public void setRating(float rating) {
-        this.rating = rating;
+    public void addRating(int score) {
+        long delta = pack(score, 1);
+        ratingAccumulator.addAndGet(delta);
+        ratingStatistics.record(score, System.currentTimeMillis());
     }
 
     /**
@@ -0,0 +1,143 @@
+package model;
+
+/**
+ * The DomainEvent class represents an immutable fact in the lifecycle of an appointment, e.g., an appointment being booked or confirmed,
+ * which is appended to the domain event log with a sequence number.
+ * <p>
+ * The entity, detail and value of an event depend on its type:
+ * </p>
+ * <ul>
+ *   <li>The appointment events are about the appointment, and a rescheduled appointment has the ID of the replaced appointment as its detail.</li>
+ *   <li>An outcome recorded event is about the appointment and has the ID of the appointment outcome record as its detail.</li>
+ *   <li>A prescription dispensed event is about the appointment outcome record, and has the medicine ID as its detail and the quantity as its value.</li>
+ *   <li>An appointment rated event has the rating score as its value.</li>
+ * </ul>
+ */
+public class DomainEvent {
+    /**
+     * The sequence number of the event in the domain event log.
+     */
+    private long sequence;
+
+    /**
+     * The type of the event.
+     */
+    private DomainEventType type;
+
+    /**
+     * The time when the event happened in milliseconds since the epoch.
+     */
+    private long timestamp;
+
+    /**
+     * The ID of the entity that the event is about.
+     */
+    private String entityId;
+
+    /**
+     * The ID of the patient involved in the event, if any.
+     */
+    private String patientId;
+
+    /**
+     * The ID of the doctor involved in the event, if any.
+     */
+    private String doctorId;
+
+    /**
+     * The detail of the event, if any.
+     */
+    private String detail;
+
+    /**
+     * The value of the event, if any.
+     */
+    private int value;
+
+    /**
+     * Constructs a new DomainEvent with the specified details.
+     *
+     * @param sequence  the sequence number of the event
+     * @param type      the type of the event
+     * @param timestamp the time when the event happened in milliseconds since the epoch
+     * @param entityId  the ID of the entity that the event is about
+     * @param patientId the ID of the patient involved, or null
+     * @param doctorId  the ID of the doctor involved, or null
+     * @param detail    the detail of the event, or null
+     * @param value     the value of the event
+     */
+    public DomainEvent(long sequence, DomainEventType type, long timestamp, String entityId, String patientId, String doctorId, String detail, int value) {
+        this.sequence = sequence;
+        this.type = type;
+        this.timestamp = timestamp;
+        this.entityId = entityId;
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.detail = detail;
+        this.value = value;
+    }
+
+    /**
+     * Getter for the sequence number of the event.
+     * @return the sequence number of the event
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Getter for the type of the event.
+     * @return the type of the event
+     */
+    public DomainEventType getType() {
+        return type;
+    }
+
+    /**
+     * Getter for the time when the event happened.
+     * @return the time when the event happened in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Getter for the ID of the entity that the event is about.
+     * @return the ID of the entity
+     */
+    public String getEntityId() {
+        return entityId;
+    }
+
+    /**
+     * Getter for the ID of the patient involved in the event.
+     * @return the ID of the patient, or null if no patient is involved
+     */
+    public String getPatientId() {
+        return patientId;
+    }
+
+    /**
+     * Getter for the ID of the doctor involved in the event.
+     * @return the ID of the doctor, or null if no doctor is involved
+     */
+    public String getDoctorId() {
+        return doctorId;
+    }
+
+    /**
+     * Getter for the detail of the event.
+     * @return the detail of the event, or null if the event has no detail
+     */
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * Getter for the value of the event.
+     * @return the value of the event
+     */
+    public int getValue() {
+        return value;
+    }
+}
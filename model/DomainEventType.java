@@ -0,0 +1,9 @@
+package model;
+
+/**
+ * Enumeration representing the type of a domain event in the lifecycle of an appointment.
+ */
+public enum DomainEventType {
+    APPOINTMENT_BOOKED, APPOINTMENT_CONFIRMED, APPOINTMENT_DECLINED, APPOINTMENT_CANCELLED, APPOINTMENT_RESCHEDULED,
+    OUTCOME_RECORDED, PRESCRIPTION_DISPENSED, APPOINTMENT_RATED
+}
@@ -1,10 +1,33 @@
 package model;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import observer.IPublisher;
+import observer.ISubscriber;
+import observer.Notification;
+
 /**
  * The Medicine class represents a medicine with details such as stock level, 
  * low stock level alert line, replenishment request status, and price.
+ * <p>
+ * The stock level is kept in an atomic stock ledger that supports reserving stock before dispensing,
+ * then committing or releasing the reservation, so that concurrent dispensing and replenishment never oversell.
+ * </p>
+ * <p>
+ * The stock on hand is further broken down into lots with their own expiry dates, kept in a min-heap by expiry date,
+ * so that dispensing always consumes the first-expiring lots first (FEFO).
+ * Every change to the stock level on hand is also recorded in the stock history of the medicine with its reason.
+ * </p>
+ * It is a Publisher and notifies Subscribers when the stock level or the low stock level alert line changes.
  */
-public class Medicine {
+public class Medicine implements IPublisher {
     /**
      * The unique identifier for the medicine.
      */
@@ -16,9 +39,23 @@ public class Medicine {
     private String name;
 
     /**
-     * The stock level of the medicine.
+     * The stock ledger of the medicine.
+     * The stock level on hand is packed into the upper 32 bits and the reserved stock level into the lower 32 bits,
+     * so that both are read together with a single atomic read and updated together with a single compare-and-set or atomic add.
+     */
+    private AtomicLong stockLedger;
+
+    /**
+     * The lots of the medicine that make up the stock level on hand, in a min-heap ordered by expiry date.
+     * Every change to the stock level on hand is made while holding the lock of this heap.
+     */
+    private PriorityQueue<MedicineLot> lots;
+
+    /**
+     * The history of the stock level on hand of the medicine.
+     * Every stock delta is recorded while holding the lock of the heap of lots, in the order the deltas are applied.
      */
-    private int stock;
+    private StockHistory stockHistory;
 
     /**
      * The low stock level alert line of the medicine.
@@ -35,6 +72,16 @@ public class Medicine {
      */
     private float price;
 
+    /**
+     * The recent dispensing history of the medicine.
+     */
+    private ConsumptionTracker consumptionTracker;
+
+    /**
+     * The set of subscribers to the stock level changes of the medicine.
+     */
+    private Set<ISubscriber> subscribers;
+
     /**
      * Constructs a new Medicine with the specified details.
      *
@@ -48,10 +95,45 @@ public class Medicine {
     public Medicine(String medicineId, String name, int stock, int lowStockThreshold, boolean isRequestingReplenishment, float price) {
         this.medicineId = medicineId;
         this.name = name;
-        this.stock = stock;
+        this.stockLedger = new AtomicLong(pack(stock, 0));
+        this.lots = new PriorityQueue<MedicineLot>();
+        if (stock > 0) {
+            lots.add(new MedicineLot(this, stock, null));
+        }
+        this.stockHistory = new StockHistory(stock, System.currentTimeMillis());
         this.lowStockThreshold = lowStockThreshold;
         this.isRequestingReplenishment = isRequestingReplenishment;
         this.price = price;
+        this.consumptionTracker = new ConsumptionTracker();
+        this.subscribers = new CopyOnWriteArraySet<ISubscriber>();
+    }
+
+    /**
+     * Packs a stock level on hand and a reserved stock level into a single long value.
+     * @param onHand   the stock level on hand
+     * @param reserved the reserved stock level
+     * @return the packed value
+     */
+    private static long pack(long onHand, long reserved) {
+        return (onHand << 32) | (reserved & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Extracts the stock level on hand from a packed value.
+     * @param packed the packed value
+     * @return the stock level on hand
+     */
+    private static int unpackOnHand(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    /**
+     * Extracts the reserved stock level from a packed value.
+     * @param packed the packed value
+     * @return the reserved stock level
+     */
+    private static int unpackReserved(long packed) {
+        return (int) (packed & 0xFFFFFFFFL);
     }
 
     /**
@@ -79,19 +161,262 @@ public class Medicine {
     }
 
     /**
-     * Getter for the stock level of the medicine.
+     * Getter for the stock level of the medicine, including the reserved stock that has not been dispensed yet.
      * @return the stock level of the medicine
      */
     public int getStock() {
-        return stock;
+        return unpackOnHand(stockLedger.get());
+    }
+
+    /**
+     * Getter for the reserved stock level of the medicine, i.e., the stock reserved for dispensing but not committed yet.
+     * @return the reserved stock level of the medicine
+     */
+    public int getReservedStock() {
+        return unpackReserved(stockLedger.get());
+    }
+
+    /**
+     * Getter for the available stock level of the medicine, i.e., the stock level that is not reserved.
+     * It is 0 if expired lots have been discarded from under the reservations.
+     * @return the available stock level of the medicine
+     */
+    public int getAvailableStock() {
+        long packed = stockLedger.get();
+        return Math.max(0, unpackOnHand(packed) - unpackReserved(packed));
+    }
+
+    /**
+     * Getter for the lots of the medicine that still have stock, ordered by expiry date with the first-expiring lot first.
+     * @return a list of the lots of the medicine
+     */
+    public List<MedicineLot> getLots() {
+        List<MedicineLot> sortedLots;
+        synchronized (lots) {
+            sortedLots = new ArrayList<MedicineLot>(lots);
+        }
+        Collections.sort(sortedLots);
+        return sortedLots;
+    }
+
+    /**
+     * Adds a lot of the specified quantity to the heap of lots.
+     * The caller must hold the lock of the heap.
+     * @param quantity   the quantity of the lot
+     * @param expiryDate the expiry date of the lot, or null if the lot does not expire
+     * @return the lot added
+     */
+    private MedicineLot addLot(int quantity, Date expiryDate) {
+        MedicineLot lot = new MedicineLot(this, quantity, expiryDate);
+        lots.add(lot);
+        return lot;
+    }
+
+    /**
+     * Consumes the specified quantity from the heap of lots, starting from the first-expiring lot.
+     * The lots that are used up are removed from the heap.
+     * The caller must hold the lock of the heap.
+     * @param quantity the quantity to be consumed
+     */
+    private void consumeLots(int quantity) {
+        while (quantity > 0 && !lots.isEmpty()) {
+            MedicineLot lot = lots.peek();
+            int consumed = Math.min(quantity, lot.getQuantity());
+            lot.setQuantity(lot.getQuantity() - consumed);
+            quantity -= consumed;
+            if (lot.getQuantity() == 0) {
+                lots.poll();
+            }
+        }
     }
 
     /**
      * Setter for the stock level of the medicine.
+     * The stock level cannot be set below the reserved stock level.
+     * An increase is added as a lot that does not expire, and a decrease is taken from the first-expiring lots.
      * @param stock the new stock level of the medicine
+     * @return true if the stock level is updated, false if the new stock level is below the reserved stock level
+     */
+    public boolean setStock(int stock) {
+        synchronized (lots) {
+            while (true) {
+                long packed = stockLedger.get();
+                int onHand = unpackOnHand(packed);
+                int reserved = unpackReserved(packed);
+                if (stock < reserved) {
+                    return false;
+                }
+                if (stockLedger.compareAndSet(packed, pack(stock, reserved))) {
+                    if (stock > onHand) {
+                        addLot(stock - onHand, null);
+                    } else {
+                        consumeLots(onHand - stock);
+                    }
+                    stockHistory.record(stock - onHand, StockChangeReason.ADJUST, System.currentTimeMillis());
+                    break;
+                }
+            }
+        }
+        notifyStockChanged();
+        return true;
+    }
+
+    /**
+     * Reserves the specified quantity of stock for dispensing.
+     * The reservation succeeds only if there is enough available stock.
+     * @param quantity the quantity to be reserved
+     * @return true if the stock is reserved, false if there is not enough available stock
+     */
+    public boolean reserveStock(int quantity) {
+        while (true) {
+            long packed = stockLedger.get();
+            int onHand = unpackOnHand(packed);
+            int reserved = unpackReserved(packed);
+            if (quantity < 0 || onHand - reserved < quantity) {
+                return false;
+            }
+            if (stockLedger.compareAndSet(packed, pack(onHand, reserved + quantity))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Commits a previous reservation, i.e., removes the reserved quantity from the stock level.
+     * The expired lots of the medicine are discarded first, so the quantity is taken from the first-expiring lots that have not expired,
+     * and is recorded as dispensed in the consumption tracker of the medicine.
+     * If the lots that have not expired cannot cover the quantity, the reservation is released instead and nothing is dispensed.
+     * @param quantity the reserved quantity to be committed
+     * @return true if the reservation is committed, false if it is released because the stock that has not expired is insufficient
+     */
+    public boolean commitStock(int quantity) {
+        int discarded;
+        boolean isCommitted;
+        synchronized (lots) {
+            discarded = removeExpiredLots(new Date());
+            isCommitted = getStock() >= quantity;
+            if (isCommitted) {
+                stockLedger.addAndGet(-pack(quantity, quantity));
+                consumeLots(quantity);
+                stockHistory.record(-quantity, StockChangeReason.DISPENSE, System.currentTimeMillis());
+            } else {
+                stockLedger.addAndGet(-quantity);
+            }
+        }
+        if (isCommitted) {
+            consumptionTracker.record(quantity, System.currentTimeMillis());
+        }
+        if (isCommitted || discarded > 0) {
+            notifyStockChanged();
+        }
+        return isCommitted;
+    }
+
+    /**
+     * Releases a previous reservation, i.e., makes the reserved quantity available again.
+     * @param quantity the reserved quantity to be released
+     */
+    public void releaseStock(int quantity) {
+        stockLedger.addAndGet(-quantity);
+    }
+
+    /**
+     * Adds the specified quantity to the stock level of the medicine as a lot that does not expire.
+     * @param quantity the quantity to be added
+     */
+    public void replenishStock(int quantity) {
+        synchronized (lots) {
+            stockLedger.addAndGet(pack(quantity, 0));
+            addLot(quantity, null);
+            stockHistory.record(quantity, StockChangeReason.REPLENISH, System.currentTimeMillis());
+        }
+        notifyStockChanged();
+    }
+
+    /**
+     * Adds the specified quantity to the stock level of the medicine as a lot with the specified expiry date.
+     * @param quantity   the quantity to be added
+     * @param expiryDate the expiry date of the lot, or null if the lot does not expire
+     * @return the lot added
+     */
+    public MedicineLot replenishStock(int quantity, Date expiryDate) {
+        MedicineLot lot;
+        synchronized (lots) {
+            stockLedger.addAndGet(pack(quantity, 0));
+            lot = addLot(quantity, expiryDate);
+            stockHistory.record(quantity, StockChangeReason.REPLENISH, System.currentTimeMillis());
+        }
+        notifyStockChanged();
+        return lot;
+    }
+
+    /**
+     * Discards the whole remaining quantity of a lot that has been taken out of the heap of lots from the stock level on hand.
+     * The reservations are left as they are and are covered by the remaining lots when committed.
+     * The caller must hold the lock of the heap.
+     * @param lot the lot taken out of the heap
+     * @return the quantity discarded
+     */
+    private int discardRemaining(MedicineLot lot) {
+        int discarded = lot.getQuantity();
+        lot.setQuantity(0);
+        if (discarded > 0) {
+            stockLedger.addAndGet(-pack(discarded, 0));
+            stockHistory.record(-discarded, StockChangeReason.EXPIRE, System.currentTimeMillis());
+        }
+        return discarded;
+    }
+
+    /**
+     * Removes the lots that have expired on the specified date from the head of the heap of lots.
+     * The caller must hold the lock of the heap.
+     * @param date the date on which the lots are checked
+     * @return the quantity discarded
+     */
+    private int removeExpiredLots(Date date) {
+        int discarded = 0;
+        while (!lots.isEmpty() && lots.peek().isExpired(date)) {
+            discarded += discardRemaining(lots.poll());
+        }
+        return discarded;
+    }
+
+    /**
+     * Discards the whole remaining quantity of a lot of the medicine, e.g., when the lot has expired.
+     * Stock reserved for dispensing is not protected, so a later commit of a reservation that the remaining lots
+     * cannot cover is released instead of dispensing from the discarded lot.
+     * @param lot the lot to be discarded
+     * @return the quantity discarded, which is 0 if the lot is no longer in stock
      */
-    public void setStock(int stock) {
-        this.stock = stock;
+    public int discardLot(MedicineLot lot) {
+        int discarded;
+        synchronized (lots) {
+            if (!lots.remove(lot)) {
+                return 0;
+            }
+            discarded = discardRemaining(lot);
+        }
+        if (discarded > 0) {
+            notifyStockChanged();
+        }
+        return discarded;
+    }
+
+    /**
+     * Discards the lots of the medicine that have expired on the specified date.
+     * Only the lock of this medicine is taken, so it can be called before dispensing without blocking other medicines.
+     * @param date the date on which the lots are checked
+     * @return the quantity discarded
+     */
+    public int discardExpiredLots(Date date) {
+        int discarded;
+        synchronized (lots) {
+            discarded = removeExpiredLots(date);
+        }
+        if (discarded > 0) {
+            notifyStockChanged();
+        }
+        return discarded;
     }
 
     /**
@@ -108,8 +433,25 @@ public class Medicine {
      */
     public void setLowStockThreshold(int lowStockThreshold) {
         this.lowStockThreshold = lowStockThreshold;
+        notifyStockChanged();
     }
     
+    /**
+     * Getter for the history of the stock level on hand of the medicine.
+     * @return the stock history of the medicine
+     */
+    public StockHistory getStockHistory() {
+        return stockHistory;
+    }
+
+    /**
+     * Getter for the recent dispensing history of the medicine.
+     * @return the consumption tracker of the medicine
+     */
+    public ConsumptionTracker getConsumptionTracker() {
+        return consumptionTracker;
+    }
+
     /**
      * Getter for the replenishment request status of the medicine.
      * @return the replenishment request status of the medicine, true if requesting replenishment, false otherwise
@@ -134,6 +476,14 @@ public class Medicine {
         return price;
     }
 
+    /**
+     * Getter for the price of the medicine in cents, rounded to the nearest cent.
+     * @return the price of the medicine in cents
+     */
+    public long getPriceInCents() {
+        return Math.round((double) price * 100);
+    }
+
     /**
      * Setter for the price of the medicine.
      * @param price the new price of the medicine
@@ -141,4 +491,40 @@ public class Medicine {
     public void setPrice(float price) {
         this.price = price;
     }
+
+    /**
+     * Registers a subscriber to the stock level change notifications of the medicine.
+     * @param subscriber the subscriber to register
+     */
+    public void subscribe(ISubscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Unregisters a subscriber from the stock level change notifications of the medicine.
+     * @param subscriber the subscriber to unregister
+     */
+    public void unsubscribe(ISubscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Notifies all subscribers of the stock level change of the medicine.
+     * @param notification the notification to send to subscribers
+     */
+    public void notifySubscribers(Notification notification) {
+        for (ISubscriber subscriber : subscribers) {
+            subscriber.update(notification);
+        }
+    }
+
+    /**
+     * Notifies subscribers, if any, that the stock level or the low stock level alert line of the medicine has changed.
+     */
+    private void notifyStockChanged() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        notifySubscribers(Notification.medicineStockChanged(medicineId, getStock()));
+    }
 }
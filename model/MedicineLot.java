@@ -0,0 +1,140 @@
+package model;
+
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * The MedicineLot class represents a lot of a medicine, which is part of a Medicine.
+ * It contains the remaining quantity of the lot and its expiry date.
+ * It implements the Comparable interface to support ordering lots by their expiry dates, with the first-expiring lot first.
+ */
+public class MedicineLot implements Comparable<MedicineLot> {
+    /**
+     * A static variable to keep track of the order in which lots are received.
+     * It is used to break ties between lots with the same expiry date.
+     */
+    private static long nextSequence = 0;
+
+    /**
+     * The medicine of the lot.
+     */
+    private Medicine medicine;
+
+    /**
+     * The remaining quantity of the lot.
+     */
+    private int quantity;
+
+    /**
+     * The expiry date of the lot, or null if the lot does not expire.
+     */
+    private Date expiryDate;
+
+    /**
+     * The order in which the lot is received.
+     */
+    private long sequence;
+
+    /**
+     * Constructs a new MedicineLot with the specified details.
+     *
+     * @param medicine   the medicine of the lot
+     * @param quantity   the quantity of the lot
+     * @param expiryDate the expiry date of the lot, or null if the lot does not expire
+     */
+    public MedicineLot(Medicine medicine, int quantity, Date expiryDate) {
+        this.medicine = medicine;
+        this.quantity = quantity;
+        this.expiryDate = expiryDate;
+        synchronized (MedicineLot.class) {
+            this.sequence = nextSequence++;
+        }
+    }
+
+    /**
+     * Compares this lot with another lot based on their expiry dates.
+     * The lots that do not expire come after all lots that expire.
+     * @param o the lot to be compared
+     * @return a negative integer, zero, or a positive integer if this lot expires earlier than, at the same time as, or later than the other lot
+     */
+    public int compareTo(MedicineLot o) {
+        if (expiryDate != null && o.expiryDate != null) {
+            int diff = expiryDate.compareTo(o.expiryDate);
+            if (diff != 0) {
+                return diff;
+            }
+        } else if (expiryDate != null) {
+            return -1;
+        } else if (o.expiryDate != null) {
+            return 1;
+        }
+        return Long.compare(sequence, o.sequence);
+    }
+
+    /**
+     * Getter for the medicine of the lot.
+     * @return the medicine of the lot
+     */
+    public Medicine getMedicine() {
+        return medicine;
+    }
+
+    /**
+     * Getter for the remaining quantity of the lot.
+     * @return the remaining quantity of the lot
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Setter for the remaining quantity of the lot.
+     * @param quantity the new remaining quantity of the lot
+     */
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    /**
+     * Getter for the expiry date of the lot.
+     * @return the expiry date of the lot, or null if the lot does not expire
+     */
+    public Date getExpiryDate() {
+        return expiryDate;
+    }
+
+    /**
+     * Checks if the lot has expired on the specified date.
+     * @param date the date to be checked
+     * @return true if the lot expires on a day before the date, false otherwise
+     */
+    public boolean isExpired(Date date) {
+        return hasExpired(expiryDate, date);
+    }
+
+    /**
+     * Checks if an expiry date has passed on the specified date.
+     * The dates are compared by calendar day, so a lot can still be used on the day it expires.
+     * @param expiryDate the expiry date, or null if it does not expire
+     * @param date       the date to be checked
+     * @return true if the expiry date is on a day before the date, false otherwise
+     */
+    public static boolean hasExpired(Date expiryDate, Date date) {
+        return expiryDate != null && startOfDay(expiryDate).before(startOfDay(date));
+    }
+
+    /**
+     * Truncates a date to the start of its calendar day.
+     * @param date the date to be truncated
+     * @return the start of the day of the date
+     */
+    private static Date startOfDay(Date date) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTime();
+    }
+}
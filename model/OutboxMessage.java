@@ -0,0 +1,163 @@
+package model;
+
+/**
+ * The OutboxMessage class represents an outbound email to a patient, which is written to the outbox
+ * in the same step as the change it reports and is delivered later by the mail relay.
+ * It keeps track of the delivery attempts of the message and the time when it is next due to be sent.
+ */
+public class OutboxMessage {
+    /**
+     * The ID of the message.
+     */
+    private String messageId;
+
+    /**
+     * The email address of the recipient.
+     */
+    private String recipient;
+
+    /**
+     * The subject of the message.
+     */
+    private String subject;
+
+    /**
+     * The body of the message.
+     */
+    private String body;
+
+    /**
+     * The time when the message was written to the outbox in milliseconds since the epoch.
+     */
+    private long createdTime;
+
+    /**
+     * The delivery status of the message.
+     */
+    private OutboxMessageStatus status;
+
+    /**
+     * The number of failed delivery attempts of the message.
+     */
+    private int attempts;
+
+    /**
+     * The time when the message is next due to be sent in milliseconds since the epoch.
+     */
+    private long nextAttemptTime;
+
+    /**
+     * Constructs a new PENDING OutboxMessage that is due to be sent immediately.
+     *
+     * @param messageId the ID of the message
+     * @param recipient the email address of the recipient
+     * @param subject   the subject of the message
+     * @param body      the body of the message
+     */
+    public OutboxMessage(String messageId, String recipient, String subject, String body) {
+        this.messageId = messageId;
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.createdTime = System.currentTimeMillis();
+        this.status = OutboxMessageStatus.PENDING;
+        this.attempts = 0;
+        this.nextAttemptTime = createdTime;
+    }
+
+    /**
+     * Getter for the ID of the message.
+     * @return the ID of the message
+     */
+    public String getMessageId() {
+        return messageId;
+    }
+
+    /**
+     * Setter for the ID of the message.
+     * @param messageId the new ID of the message
+     */
+    public void setMessageId(String messageId) {
+        this.messageId = messageId;
+    }
+
+    /**
+     * Getter for the email address of the recipient.
+     * @return the email address of the recipient
+     */
+    public String getRecipient() {
+        return recipient;
+    }
+
+    /**
+     * Getter for the subject of the message.
+     * @return the subject of the message
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * Getter for the body of the message.
+     * @return the body of the message
+     */
+    public String getBody() {
+        return body;
+    }
+
+    /**
+     * Getter for the time when the message was written to the outbox.
+     * @return the time when the message was written in milliseconds since the epoch
+     */
+    public long getCreatedTime() {
+        return createdTime;
+    }
+
+    /**
+     * Getter for the delivery status of the message.
+     * @return the delivery status of the message
+     */
+    public OutboxMessageStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Setter for the delivery status of the message.
+     * @param status the new delivery status of the message
+     */
+    public void setStatus(OutboxMessageStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * Getter for the number of failed delivery attempts of the message.
+     * @return the number of failed delivery attempts
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Setter for the number of failed delivery attempts of the message.
+     * @param attempts the new number of failed delivery attempts
+     */
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    /**
+     * Getter for the time when the message is next due to be sent.
+     * @return the time when the message is next due in milliseconds since the epoch
+     */
+    public long getNextAttemptTime() {
+        return nextAttemptTime;
+    }
+
+    /**
+     * Setter for the time when the message is next due to be sent.
+     * @param nextAttemptTime the new time when the message is next due in milliseconds since the epoch
+     */
+    public void setNextAttemptTime(long nextAttemptTime) {
+        this.nextAttemptTime = nextAttemptTime;
+    }
+}
@@ -0,0 +1,8 @@
+package model;
+
+/**
+ * Enumeration representing the delivery status of an outbound message in the outbox.
+ */
+public enum OutboxMessageStatus {
+    PENDING, SENT, FAILED
+}
@@ -0,0 +1,68 @@
+package model;
+
+/**
+ * The PickListItem class represents a line of the dispensary pick list,
+ * i.e., the total quantity of a medicine required by all pending prescriptions,
+ * together with the stock level of the medicine and the shortfall, if any.
+ */
+public class PickListItem {
+    /**
+     * The medicine of the pick list item.
+     */
+    private Medicine medicine;
+
+    /**
+     * The total quantity of the medicine required by all pending prescriptions.
+     */
+    private int requiredQuantity;
+
+    /**
+     * The stock level of the medicine when the pick list item is created.
+     */
+    private int stock;
+
+    /**
+     * Constructs a new PickListItem with the specified details.
+     *
+     * @param medicine         the medicine of the pick list item
+     * @param requiredQuantity the total quantity of the medicine required by all pending prescriptions
+     * @param stock            the stock level of the medicine
+     */
+    public PickListItem(Medicine medicine, int requiredQuantity, int stock) {
+        this.medicine = medicine;
+        this.requiredQuantity = requiredQuantity;
+        this.stock = stock;
+    }
+
+    /**
+     * Getter for the medicine of the pick list item.
+     * @return the medicine of the pick list item
+     */
+    public Medicine getMedicine() {
+        return medicine;
+    }
+
+    /**
+     * Getter for the total quantity of the medicine required by all pending prescriptions.
+     * @return the required quantity of the medicine
+     */
+    public int getRequiredQuantity() {
+        return requiredQuantity;
+    }
+
+    /**
+     * Getter for the stock level of the medicine when the pick list item is created.
+     * @return the stock level of the medicine
+     */
+    public int getStock() {
+        return stock;
+    }
+
+    /**
+     * Getter for the quantity of the medicine that the stock level falls short of the required quantity.
+     * @return the shortfall of the medicine, or 0 if there is enough stock
+     */
+    public int getShortfall() {
+        return Math.max(0, requiredQuantity - stock);
+    }
+}
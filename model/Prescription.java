@@ -2,7 +2,7 @@ package model;
 
 /**
  * The Prescription class represents a prescription item provided by a doctor.
- * It contains information about the medicine and the status of the prescription.
+ * It contains information about the medicine, the quantity, dosage and duration of the medication, and the status of the prescription.
  */
 public class Prescription {
     /**
@@ -10,19 +10,41 @@ public class Prescription {
      */
     private Medicine medicine;
 
+    /**
+     * The quantity of the medicine prescribed in the prescription item.
+     */
+    private int quantity;
+
+    /**
+     * The dosage instructions of the prescription item.
+     * Example: "1 tablet three times daily"
+     */
+    private String dosage;
+
+    /**
+     * The duration of the medication in days.
+     */
+    private int durationInDays;
+
     /**
      * The status of the prescription item.
      */
     private PrescriptionStatus status;
 
     /**
-     * Constructs a new Prescription with the specified medicine and status.
+     * Constructs a new Prescription with the specified medicine, quantity, dosage, duration and status.
      *
-     * @param medicine the medicine prescribed in the prescription item
-     * @param status   the status of the prescription item
+     * @param medicine       the medicine prescribed in the prescription item
+     * @param quantity       the quantity of the medicine prescribed in the prescription item
+     * @param dosage         the dosage instructions of the prescription item
+     * @param durationInDays the duration of the medication in days
+     * @param status         the status of the prescription item
      */
-    public Prescription(Medicine medicine, PrescriptionStatus status) {
+    public Prescription(Medicine medicine, int quantity, String dosage, int durationInDays, PrescriptionStatus status) {
         this.medicine = medicine;
+        this.quantity = quantity;
+        this.dosage = dosage;
+        this.durationInDays = durationInDays;
         this.status = status;
     }
 
@@ -34,6 +56,30 @@ public class Prescription {
         return medicine;
     }
 
+    /**
+     * Getter for the quantity of the medicine prescribed in the prescription item.
+     * @return the quantity of the medicine prescribed in the prescription item
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Getter for the dosage instructions of the prescription item.
+     * @return the dosage instructions of the prescription item
+     */
+    public String getDosage() {
+        return dosage;
+    }
+
+    /**
+     * Getter for the duration of the medication in days.
+     * @return the duration of the medication in days
+     */
+    public int getDurationInDays() {
+        return durationInDays;
+    }
+
     /**
      * Getter for the status of the prescription item.
      * @return the status of the prescription item
@@ -49,4 +95,14 @@ public class Prescription {
     public void setStatus(PrescriptionStatus status) {
         this.status = status;
     }
+
+    /**
+     * Returns a printable description of the prescription item in the format:
+     * "medicineName x quantity (dosage, for durationInDays days)".
+     *
+     * @return the printable description of the prescription item
+     */
+    public String toString() {
+        return medicine.getName() + " x" + quantity + " (" + dosage + ", for " + durationInDays + " days)";
+    }
 }
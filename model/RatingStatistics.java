@@ -0,0 +1,179 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The RatingStatistics class represents the rating distribution of a doctor, which is part of a Doctor.
+ * It keeps a fixed-size 1-5 star histogram of all ratings received and a ring of daily buckets of the recent ratings,
+ * both of which are updated in O(1) per rating.
+ */
+public class RatingStatistics {
+    /**
+     * The lowest rating score.
+     */
+    public static final int MIN_SCORE = 1;
+
+    /**
+     * The highest rating score.
+     */
+    public static final int MAX_SCORE = 5;
+
+    /**
+     * The number of daily buckets kept in the ring of recent ratings.
+     */
+    public static final int WINDOW_DAYS = 30;
+
+    /**
+     * The number of milliseconds in a day.
+     */
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    /**
+     * The histogram of rating scores, where the element at index i is the number of (i + 1)-star ratings.
+     */
+    private AtomicLongArray histogram;
+
+    /**
+     * The day number (days since the epoch) that each bucket of the ring currently holds.
+     */
+    private long[] bucketDays;
+
+    /**
+     * The sum of rating scores received on the day of each bucket of the ring.
+     */
+    private long[] bucketSums;
+
+    /**
+     * The number of ratings received on the day of each bucket of the ring.
+     */
+    private long[] bucketCounts;
+
+    /**
+     * Constructs a new RatingStatistics with an empty histogram and an empty ring of recent ratings.
+     */
+    public RatingStatistics() {
+        this.histogram = new AtomicLongArray(MAX_SCORE - MIN_SCORE + 1);
+        this.bucketDays = new long[WINDOW_DAYS];
+        this.bucketSums = new long[WINDOW_DAYS];
+        this.bucketCounts = new long[WINDOW_DAYS];
+        for (int i = 0; i < WINDOW_DAYS; i++) {
+            bucketDays[i] = -1;
+        }
+    }
+
+    /**
+     * Converts a timestamp into a day number.
+     * @param timeMillis the timestamp in milliseconds since the epoch
+     * @return the number of days since the epoch
+     */
+    private static long toDay(long timeMillis) {
+        return Math.floorDiv(timeMillis, MILLIS_PER_DAY);
+    }
+
+    /**
+     * Records a rating score received at the specified time.
+     * @param score      the rating score, between 1 and 5
+     * @param timeMillis the time when the rating was received in milliseconds since the epoch
+     */
+    public void record(int score, long timeMillis) {
+        histogram.incrementAndGet(score - MIN_SCORE);
+
+        long day = toDay(timeMillis);
+        int slot = (int) Math.floorMod(day, (long) WINDOW_DAYS);
+        synchronized (this) {
+            if (bucketDays[slot] != day) {
+                bucketDays[slot] = day;
+                bucketSums[slot] = 0;
+                bucketCounts[slot] = 0;
+            }
+            bucketSums[slot] += score;
+            bucketCounts[slot]++;
+        }
+    }
+
+    /**
+     * Getter for the number of ratings with the specified score.
+     * @param score the rating score, between 1 and 5
+     * @return the number of ratings with the score
+     */
+    public long getScoreCount(int score) {
+        return histogram.get(score - MIN_SCORE);
+    }
+
+    /**
+     * Getter for the total number of ratings recorded in the histogram.
+     * @return the total number of ratings recorded
+     */
+    public long getTotalCount() {
+        long total = 0;
+        for (int i = 0; i < histogram.length(); i++) {
+            total += histogram.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Calculates the rating score at the specified percentile of the histogram,
+     * e.g., the 50th percentile is the median rating score.
+     * @param percentile the percentile, between 0 and 100
+     * @return the rating score at the percentile, or 0 if no rating has been recorded
+     */
+    public int getPercentile(double percentile) {
+        long[] counts = new long[histogram.length()];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = histogram.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i + MIN_SCORE;
+            }
+        }
+        return MAX_SCORE;
+    }
+
+    /**
+     * Getter for the number of ratings received within the last {@value #WINDOW_DAYS} days of the specified time.
+     * @param nowMillis the current time in milliseconds since the epoch
+     * @return the number of recent ratings
+     */
+    public synchronized long getRecentCount(long nowMillis) {
+        long today = toDay(nowMillis);
+        long count = 0;
+        for (int i = 0; i < WINDOW_DAYS; i++) {
+            if (today - bucketDays[i] < WINDOW_DAYS && bucketDays[i] <= today) {
+                count += bucketCounts[i];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Calculates the average of the ratings received within the last {@value #WINDOW_DAYS} days of the specified time.
+     * @param nowMillis the current time in milliseconds since the epoch
+     * @return the recent average rating, or 0 if no rating was received recently
+     */
+    public synchronized float getRecentAverage(long nowMillis) {
+        long today = toDay(nowMillis);
+        long sum = 0;
+        long count = 0;
+        for (int i = 0; i < WINDOW_DAYS; i++) {
+            if (today - bucketDays[i] < WINDOW_DAYS && bucketDays[i] <= today) {
+                sum += bucketSums[i];
+                count += bucketCounts[i];
+            }
+        }
+        if (count == 0) {
+            return 0;
+        }
+        return (float) ((double) sum / count);
+    }
+}
@@ -0,0 +1,75 @@
+package model;
+
+/**
+ * The ReplenishmentForecast class represents the replenishment forecast of a medicine,
+ * including its estimated daily consumption rate, the estimated number of days until it runs out of stock,
+ * and the suggested reorder quantity.
+ */
+public class ReplenishmentForecast {
+    /**
+     * The medicine of the forecast.
+     */
+    private Medicine medicine;
+
+    /**
+     * The estimated daily consumption rate of the medicine.
+     */
+    private double dailyConsumptionRate;
+
+    /**
+     * The estimated number of days until the medicine runs out of stock.
+     */
+    private double daysUntilStockout;
+
+    /**
+     * The suggested reorder quantity of the medicine.
+     */
+    private int suggestedQuantity;
+
+    /**
+     * Constructs a new ReplenishmentForecast with the specified details.
+     *
+     * @param medicine             the medicine of the forecast
+     * @param dailyConsumptionRate the estimated daily consumption rate of the medicine
+     * @param daysUntilStockout    the estimated number of days until the medicine runs out of stock, or infinity if it is not consumed
+     * @param suggestedQuantity    the suggested reorder quantity of the medicine
+     */
+    public ReplenishmentForecast(Medicine medicine, double dailyConsumptionRate, double daysUntilStockout, int suggestedQuantity) {
+        this.medicine = medicine;
+        this.dailyConsumptionRate = dailyConsumptionRate;
+        this.daysUntilStockout = daysUntilStockout;
+        this.suggestedQuantity = suggestedQuantity;
+    }
+
+    /**
+     * Getter for the medicine of the forecast.
+     * @return the medicine of the forecast
+     */
+    public Medicine getMedicine() {
+        return medicine;
+    }
+
+    /**
+     * Getter for the estimated daily consumption rate of the medicine.
+     * @return the estimated daily consumption rate of the medicine
+     */
+    public double getDailyConsumptionRate() {
+        return dailyConsumptionRate;
+    }
+
+    /**
+     * Getter for the estimated number of days until the medicine runs out of stock.
+     * @return the estimated number of days until the medicine runs out of stock, or infinity if it is not consumed
+     */
+    public double getDaysUntilStockout() {
+        return daysUntilStockout;
+    }
+
+    /**
+     * Getter for the suggested reorder quantity of the medicine.
+     * @return the suggested reorder quantity of the medicine
+     */
+    public int getSuggestedQuantity() {
+        return suggestedQuantity;
+    }
+}
@@ -0,0 +1,8 @@
+package model;
+
+/**
+ * Enumeration representing the reason of a change to the stock level of a medicine.
+ */
+public enum StockChangeReason {
+    DISPENSE, REPLENISH, ADJUST, EXPIRE
+}
@@ -0,0 +1,168 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * The StockHistory class represents the history of the stock level on hand of a medicine, which is part of a Medicine.
+ * <p>
+ * Every stock delta is appended to a columnar ledger of timestamps, deltas and reasons, and the stock level is checkpointed
+ * every {@value #CHECKPOINT_INTERVAL} entries, so that the stock level at any point in time can be found
+ * with a binary search over the timestamps followed by a bounded replay from the nearest checkpoint.
+ * </p>
+ */
+public class StockHistory {
+    /**
+     * The number of ledger entries between two checkpoints of the stock level.
+     */
+    public static final int CHECKPOINT_INTERVAL = 64;
+
+    /**
+     * The initial capacity of the columns of the ledger.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The time when the history starts in milliseconds since the epoch.
+     */
+    private long startTime;
+
+    /**
+     * The number of entries in the ledger.
+     */
+    private int size;
+
+    /**
+     * The time of each entry in milliseconds since the epoch, in non-decreasing order.
+     */
+    private long[] timestamps;
+
+    /**
+     * The stock delta of each entry.
+     */
+    private int[] deltas;
+
+    /**
+     * The ordinal of the reason of each entry.
+     */
+    private byte[] reasons;
+
+    /**
+     * The stock levels checkpointed every {@value #CHECKPOINT_INTERVAL} entries,
+     * where the element at index i is the stock level after the first i * {@value #CHECKPOINT_INTERVAL} entries.
+     */
+    private int[] checkpoints;
+
+    /**
+     * The stock level after the last entry.
+     */
+    private int currentStock;
+
+    /**
+     * Constructs a new StockHistory starting at the specified time with the specified stock level.
+     * @param initialStock the stock level when the history starts
+     * @param startTime    the time when the history starts in milliseconds since the epoch
+     */
+    public StockHistory(int initialStock, long startTime) {
+        this.startTime = startTime;
+        this.size = 0;
+        this.timestamps = new long[INITIAL_CAPACITY];
+        this.deltas = new int[INITIAL_CAPACITY];
+        this.reasons = new byte[INITIAL_CAPACITY];
+        this.checkpoints = new int[INITIAL_CAPACITY];
+        this.checkpoints[0] = initialStock;
+        this.currentStock = initialStock;
+    }
+
+    /**
+     * Appends a stock delta to the ledger.
+     * The time of the entry is clamped so that the timestamps never go backwards.
+     * @param delta      the stock delta
+     * @param reason     the reason of the stock change
+     * @param timeMillis the time of the stock change in milliseconds since the epoch
+     */
+    public synchronized void record(int delta, StockChangeReason reason, long timeMillis) {
+        if (size == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            deltas = Arrays.copyOf(deltas, size * 2);
+            reasons = Arrays.copyOf(reasons, size * 2);
+        }
+        long last = size == 0 ? startTime : timestamps[size - 1];
+        timestamps[size] = Math.max(timeMillis, last);
+        deltas[size] = delta;
+        reasons[size] = (byte) reason.ordinal();
+        size++;
+        currentStock += delta;
+
+        if (size % CHECKPOINT_INTERVAL == 0) {
+            int checkpoint = size / CHECKPOINT_INTERVAL;
+            if (checkpoint == checkpoints.length) {
+                checkpoints = Arrays.copyOf(checkpoints, checkpoint * 2);
+            }
+            checkpoints[checkpoint] = currentStock;
+        }
+    }
+
+    /**
+     * Getter for the number of entries in the ledger.
+     * @return the number of entries in the ledger
+     */
+    public synchronized int getSize() {
+        return size;
+    }
+
+    /**
+     * Getter for the time of the entry at the specified index.
+     * @param idx the index of the entry
+     * @return the time of the entry in milliseconds since the epoch
+     */
+    public synchronized long getTimestamp(int idx) {
+        return timestamps[idx];
+    }
+
+    /**
+     * Getter for the stock delta of the entry at the specified index.
+     * @param idx the index of the entry
+     * @return the stock delta of the entry
+     */
+    public synchronized int getDelta(int idx) {
+        return deltas[idx];
+    }
+
+    /**
+     * Getter for the reason of the entry at the specified index.
+     * @param idx the index of the entry
+     * @return the reason of the stock change
+     */
+    public synchronized StockChangeReason getReason(int idx) {
+        return StockChangeReason.values()[reasons[idx]];
+    }
+
+    /**
+     * Calculates the stock level at the specified time.
+     * @param timeMillis the time in milliseconds since the epoch
+     * @return the stock level after all entries at or before the time, or 0 if the history has not started by then
+     */
+    public synchronized int getStockAt(long timeMillis) {
+        if (timeMillis < startTime) {
+            return 0;
+        }
+
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] <= timeMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        int checkpoint = low / CHECKPOINT_INTERVAL;
+        int stock = checkpoints[checkpoint];
+        for (int i = checkpoint * CHECKPOINT_INTERVAL; i < low; i++) {
+            stock += deltas[i];
+        }
+        return stock;
+    }
+}
@@ -0,0 +1,431 @@
+package observer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The AsyncSubscriber class delivers notifications to a subscriber asynchronously, off the publisher's thread.
+ * <p>
+ * Each AsyncSubscriber keeps a bounded lane of pending notifications for each priority class and drains them on a shared pool of daemon threads,
+ * one notification at a time, so the subscriber never sees concurrent updates.
+ * The lanes are drained strictly in the order of the priority classes and each lane in publishing order,
+ * so an urgent notification only waits for the urgent notifications before it and the notification being delivered,
+ * however many routine notifications are queued. A drain task gives up its thread after {@value #DRAIN_QUANTUM} deliveries,
+ * so a busy subscriber cannot hold a pool thread that the urgent notifications of other subscribers are waiting for.
+ * When a lane is full, the configured overflow policy decides whether to drop, block or coalesce within that lane,
+ * so a flood of routine notifications never pushes an urgent one out.
+ * </p>
+ * <p>
+ * The notifications with the same key, i.e., about the same entity, are always delivered in publishing order.
+ * A notification never overtakes a queued notification with the same key in a lower lane:
+ * the queued notifications with its key are moved up into its lane ahead of it instead,
+ * or, if there are more of them than the lane can hold, the notification is queued behind them in the lowest lane that has one.
+ * Likewise, a notification is coalesced into the last queued notification with the same key in its lane or a higher one.
+ * </p>
+ * <p>
+ * It keeps the queue depth and the delivery lag, i.e., the time a notification spends in the queue, as metrics,
+ * both in total and for each lane, including the percentiles of the delivery lag.
+ * </p>
+ */
+public class AsyncSubscriber implements ISubscriber {
+    /**
+     * The maximum number of notifications delivered by a drain task before it gives up its thread.
+     */
+    public static final int DRAIN_QUANTUM = 32;
+
+    /**
+     * The shared pool of daemon threads that deliver notifications for all asynchronous subscribers.
+     */
+    private static final ExecutorService executor = Executors.newFixedThreadPool(
+        Math.max(2, Runtime.getRuntime().availableProcessors()), runnable -> {
+            Thread thread = new Thread(runnable, "notification-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    /**
+     * The subscriber that the notifications are delivered to.
+     */
+    private ISubscriber target;
+
+    /**
+     * The overflow policy applied when a lane is full.
+     */
+    private OverflowPolicy policy;
+
+    /**
+     * The lanes of queued notifications, indexed by the ordinal of their priority class.
+     */
+    private NotificationLane[] lanes;
+
+    /**
+     * Whether a drain task of this subscriber is scheduled or running on the executor.
+     */
+    private boolean isDraining;
+
+    /**
+     * The delivery lag of the last delivered notification in nanoseconds.
+     */
+    private long lastDeliveryLag;
+
+    /**
+     * The number of notifications whose delivery threw an exception in the subscriber.
+     */
+    private long failedCount;
+
+    /**
+     * Constructs a new AsyncSubscriber that delivers notifications to the specified subscriber.
+     *
+     * @param target   the subscriber that the notifications are delivered to
+     * @param capacity the maximum number of queued notifications in each lane
+     * @param policy   the overflow policy applied when a lane is full
+     */
+    public AsyncSubscriber(ISubscriber target, int capacity, OverflowPolicy policy) {
+        this.target = target;
+        this.policy = policy;
+        this.lanes = new NotificationLane[NotificationPriority.values().length];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new NotificationLane(capacity);
+        }
+    }
+
+    /**
+     * Implements the ISubscriber interface.
+     * Queues the notification in the lane of its priority class according to the overflow policy and schedules its delivery.
+     * The queued notifications with the same key in lower lanes are moved up into the lane first, so they are still delivered before it.
+     * With the BLOCK policy, the calling thread waits while the lane is full,
+     * so it must not be called from a subscriber that is itself delivered by the same AsyncSubscriber.
+     *
+     * @param notification the new notification
+     */
+    public void update(Notification notification) {
+        long now = System.nanoTime();
+        String key = notification.getKey();
+        int laneIndex = notification.getPriority().ordinal();
+        boolean isScheduling;
+        synchronized (this) {
+            NotificationLane lane = lanes[laneIndex];
+            while (true) {
+                int promoting = countInLowerLanes(laneIndex, key);
+                if (promoting == 0) {
+                    break;
+                }
+                if (promoting >= lane.getCapacity()) {
+                    laneIndex = getLowestLaneIndex(key);
+                    lane = lanes[laneIndex];
+                    break;
+                }
+                if (lane.getCapacity() - lane.getSize() >= promoting) {
+                    promote(laneIndex, key);
+                    break;
+                }
+                if (policy == OverflowPolicy.BLOCK) {
+                    if (!awaitDelivery()) {
+                        lane.recordDrop();
+                        return;
+                    }
+                } else {
+                    lane.dropOldest();
+                }
+            }
+            if (lane.isFull()) {
+                if (policy == OverflowPolicy.COALESCE && coalesce(laneIndex, notification)) {
+                    return;
+                }
+                if (policy == OverflowPolicy.BLOCK) {
+                    while (lane.isFull()) {
+                        if (!awaitDelivery()) {
+                            lane.recordDrop();
+                            return;
+                        }
+                    }
+                } else {
+                    lane.dropOldest();
+                }
+            }
+            lane.offer(notification, now);
+            isScheduling = !isDraining;
+            isDraining = true;
+        }
+        if (isScheduling) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Waits until a notification is taken for delivery.
+     * The caller must hold the lock of this subscriber.
+     *
+     * @return true if a notification has been taken, false if the calling thread is interrupted while waiting
+     */
+    private boolean awaitDelivery() {
+        try {
+            wait();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Counts the queued notifications with the specified key in the lanes below a lane.
+     * The caller must hold the lock of this subscriber.
+     *
+     * @param laneIndex the index of the lane
+     * @param key the key of the notifications
+     * @return the number of queued notifications with the key in the lower lanes
+     */
+    private int countInLowerLanes(int laneIndex, String key) {
+        int count = 0;
+        for (int i = laneIndex + 1; i < lanes.length; i++) {
+            count += lanes[i].count(key);
+        }
+        return count;
+    }
+
+    /**
+     * Finds the lowest lane that has a queued notification with the specified key.
+     * The caller must hold the lock of this subscriber.
+     *
+     * @param key the key of the notifications
+     * @return the index of the lane, or 0 if no lane has a queued notification with the key
+     */
+    private int getLowestLaneIndex(String key) {
+        for (int i = lanes.length - 1; i > 0; i--) {
+            if (lanes[i].count(key) > 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Moves the queued notifications with the specified key from the lanes below a lane to the end of the lane, in publishing order.
+     * The caller must hold the lock of this subscriber and make sure that the lane has room for them.
+     *
+     * @param laneIndex the index of the lane
+     * @param key the key of the notifications
+     */
+    private void promote(int laneIndex, String key) {
+        List<Notification> promoted = new ArrayList<Notification>();
+        List<Long> publishTimes = new ArrayList<Long>();
+        for (int i = laneIndex + 1; i < lanes.length; i++) {
+            lanes[i].removeAll(key, promoted, publishTimes);
+        }
+        List<Integer> order = new ArrayList<Integer>();
+        for (int i = 0; i < promoted.size(); i++) {
+            order.add(i);
+        }
+        order.sort((a, b) -> Long.compare(publishTimes.get(a), publishTimes.get(b)));
+        for (int i : order) {
+            lanes[laneIndex].offer(promoted.get(i), publishTimes.get(i));
+        }
+    }
+
+    /**
+     * Coalesces a notification into the last queued notification with the same key in a lane or a higher one,
+     * starting from the lane, so it is still delivered after the other queued notifications with the key.
+     * The caller must hold the lock of this subscriber.
+     *
+     * @param laneIndex the index of the lane of the notification
+     * @param notification the new notification
+     * @return true if the notification is coalesced, false if no queued notification in the lane or a higher one has the same key
+     */
+    private boolean coalesce(int laneIndex, Notification notification) {
+        for (int i = laneIndex; i >= 0; i--) {
+            if (lanes[i].coalesce(notification)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the lane of the highest priority class that has queued notifications.
+     * The caller must hold the lock of this subscriber.
+     *
+     * @return the lane, or null if all lanes are empty
+     */
+    private NotificationLane getNextLane() {
+        for (NotificationLane lane : lanes) {
+            if (lane.getSize() > 0) {
+                return lane;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Delivers the queued notifications to the subscriber one by one, the highest priority class first, until all lanes are empty.
+     * After {@value #DRAIN_QUANTUM} deliveries, the remaining notifications are left to a new drain task at the back of the executor queue.
+     * An exception thrown by the subscriber is counted as a failed delivery and does not stop the delivery of the remaining notifications.
+     */
+    private void drain() {
+        for (int delivered = 0; delivered < DRAIN_QUANTUM; delivered++) {
+            NotificationLane lane;
+            Notification notification;
+            long publishTime;
+            synchronized (this) {
+                lane = getNextLane();
+                if (lane == null) {
+                    isDraining = false;
+                    return;
+                }
+                publishTime = lane.getOldestPublishTime();
+                notification = lane.poll();
+                notifyAll();
+            }
+
+            long lag = System.nanoTime() - publishTime;
+            boolean isFailed = false;
+            try {
+                target.update(notification);
+            } catch (RuntimeException e) {
+                isFailed = true;
+            }
+            synchronized (this) {
+                lane.recordDelivery(lag);
+                lastDeliveryLag = lag;
+                if (isFailed) {
+                    failedCount++;
+                }
+            }
+        }
+        executor.execute(this::drain);
+    }
+
+    /**
+     * Getter for the subscriber that the notifications are delivered to.
+     * @return the subscriber that the notifications are delivered to
+     */
+    public ISubscriber getTarget() {
+        return target;
+    }
+
+    /**
+     * Getter for the number of notifications waiting in all lanes.
+     * @return the queue depth
+     */
+    public synchronized int getQueueDepth() {
+        int depth = 0;
+        for (NotificationLane lane : lanes) {
+            depth += lane.getSize();
+        }
+        return depth;
+    }
+
+    /**
+     * Getter for the number of notifications waiting in the lane of a priority class.
+     * @param priority the priority class
+     * @return the queue depth of the lane
+     */
+    public synchronized int getQueueDepth(NotificationPriority priority) {
+        return lanes[priority.ordinal()].getSize();
+    }
+
+    /**
+     * Getter for the number of notifications delivered to the subscriber.
+     * @return the number of delivered notifications
+     */
+    public synchronized long getDeliveredCount() {
+        long count = 0;
+        for (NotificationLane lane : lanes) {
+            count += lane.getDeliveredCount();
+        }
+        return count;
+    }
+
+    /**
+     * Getter for the number of notifications of a priority class delivered to the subscriber.
+     * @param priority the priority class
+     * @return the number of delivered notifications of the priority class
+     */
+    public synchronized long getDeliveredCount(NotificationPriority priority) {
+        return lanes[priority.ordinal()].getDeliveredCount();
+    }
+
+    /**
+     * Getter for the number of notifications dropped because their lane was full.
+     * @return the number of dropped notifications
+     */
+    public synchronized long getDroppedCount() {
+        long count = 0;
+        for (NotificationLane lane : lanes) {
+            count += lane.getDroppedCount();
+        }
+        return count;
+    }
+
+    /**
+     * Getter for the number of notifications of a priority class dropped because their lane was full.
+     * @param priority the priority class
+     * @return the number of dropped notifications of the priority class
+     */
+    public synchronized long getDroppedCount(NotificationPriority priority) {
+        return lanes[priority.ordinal()].getDroppedCount();
+    }
+
+    /**
+     * Getter for the number of notifications coalesced into a queued notification with the same key.
+     * @return the number of coalesced notifications
+     */
+    public synchronized long getCoalescedCount() {
+        long count = 0;
+        for (NotificationLane lane : lanes) {
+            count += lane.getCoalescedCount();
+        }
+        return count;
+    }
+
+    /**
+     * Getter for the number of notifications whose delivery threw an exception in the subscriber.
+     * The failed notifications are also counted as delivered.
+     * @return the number of failed deliveries
+     */
+    public synchronized long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * Getter for the delivery lag of the last delivered notification, i.e., the time it spent in the queue.
+     * @return the last delivery lag in milliseconds
+     */
+    public synchronized double getLastDeliveryLag() {
+        return lastDeliveryLag / 1e6;
+    }
+
+    /**
+     * Getter for the longest delivery lag of all delivered notifications.
+     * @return the longest delivery lag in milliseconds
+     */
+    public synchronized double getMaxDeliveryLag() {
+        long maxDeliveryLag = 0;
+        for (NotificationLane lane : lanes) {
+            maxDeliveryLag = Math.max(maxDeliveryLag, lane.getMaxDeliveryLag());
+        }
+        return maxDeliveryLag / 1e6;
+    }
+
+    /**
+     * Getter for the longest delivery lag of the delivered notifications of a priority class.
+     * @param priority the priority class
+     * @return the longest delivery lag of the priority class in milliseconds
+     */
+    public synchronized double getMaxDeliveryLag(NotificationPriority priority) {
+        return lanes[priority.ordinal()].getMaxDeliveryLag() / 1e6;
+    }
+
+    /**
+     * Calculates the delivery lag at the specified percentile of the delivered notifications of a priority class,
+     * e.g., the 99th percentile is the lag that 99% of the notifications of the priority class are delivered within.
+     * @param priority the priority class
+     * @param percentile the percentile, between 0 and 100
+     * @return the delivery lag at the percentile in milliseconds, or 0 if no notification of the priority class has been delivered
+     */
+    public synchronized double getDeliveryLagPercentile(NotificationPriority priority, double percentile) {
+        return lanes[priority.ordinal()].getDeliveryLagPercentile(percentile);
+    }
+}
@@ -0,0 +1,157 @@
+package observer;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The EventBus class routes notifications to the subscribers interested in them,
+ * where each subscription is keyed by a topic and an entity ID, e.g., the topic "Doctor" and the doctor ID "D001".
+ * <p>
+ * A subscription with a null entity ID is a wildcard subscription to all entities of the topic.
+ * Publishing a notification only visits the subscribers of the entity and the wildcard subscribers of the topic,
+ * so the dispatch cost is proportional to the number of interested subscribers rather than all subscribers.
+ * </p>
+ * <p>
+ * The subscribers of each entity are kept in a SubscriberRegistry, which only references them weakly,
+ * so a subscriber that is no longer used elsewhere never stays reachable through the event bus.
+ * </p>
+ */
+public class EventBus {
+    /**
+     * The entity ID under which the wildcard subscriptions of a topic are kept.
+     */
+    private static final String WILDCARD = "*";
+
+    /**
+     * A ConcurrentHashMap to store the subscribers of each topic and entity ID.
+     * The key is the topic, and the value maps each entity ID, or the wildcard, to the registry of its subscribers,
+     * so that looking up the subscribers of an entity uses the given topic and entity ID as they are and allocates nothing.
+     * The map of a topic is kept once created, as there are only a few topics.
+     */
+    private ConcurrentHashMap<String, ConcurrentHashMap<String, SubscriberRegistry>> subscriptions;
+
+    /**
+     * Constructs a new EventBus with no subscriptions.
+     */
+    public EventBus() {
+        this.subscriptions = new ConcurrentHashMap<String, ConcurrentHashMap<String, SubscriberRegistry>>();
+    }
+
+    /**
+     * Returns the key of an entity ID in the subscriptions of a topic.
+     *
+     * @param entityId The entity ID, or null for all entities of the topic
+     * @return The entity ID, or the wildcard if it is null
+     */
+    private static String entityKey(String entityId) {
+        return entityId == null ? WILDCARD : entityId;
+    }
+
+    /**
+     * Registers a subscriber to the notifications of an entity of a topic.
+     *
+     * @param topic The topic
+     * @param entityId The entity ID, or null to subscribe to all entities of the topic
+     * @param subscriber The subscriber to register
+     */
+    public void subscribe(String topic, String entityId, ISubscriber subscriber) {
+        subscriptions.computeIfAbsent(topic, t -> new ConcurrentHashMap<String, SubscriberRegistry>())
+            .compute(entityKey(entityId), (k, subscribers) -> {
+                if (subscribers == null) {
+                    subscribers = new SubscriberRegistry();
+                }
+                subscribers.subscribe(subscriber);
+                return subscribers;
+            });
+    }
+
+    /**
+     * Unregisters a subscriber from the notifications of an entity of a topic.
+     * The entity is dropped from the subscriptions once it has no subscribers left.
+     *
+     * @param topic The topic
+     * @param entityId The entity ID, or null to unsubscribe from the wildcard subscription of the topic
+     * @param subscriber The subscriber to unregister
+     */
+    public void unsubscribe(String topic, String entityId, ISubscriber subscriber) {
+        ConcurrentHashMap<String, SubscriberRegistry> topicSubscriptions = subscriptions.get(topic);
+        if (topicSubscriptions == null) {
+            return;
+        }
+        topicSubscriptions.computeIfPresent(entityKey(entityId), (k, subscribers) -> {
+            subscribers.unsubscribe(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    /**
+     * Unregisters all subscribers from the notifications of an entity of a topic.
+     * The wildcard subscribers of the topic are not affected unless the entity ID is null.
+     *
+     * @param topic The topic
+     * @param entityId The entity ID, or null to clear the wildcard subscription of the topic
+     */
+    public void unsubscribeAll(String topic, String entityId) {
+        ConcurrentHashMap<String, SubscriberRegistry> topicSubscriptions = subscriptions.get(topic);
+        if (topicSubscriptions != null) {
+            topicSubscriptions.remove(entityKey(entityId));
+        }
+    }
+
+    /**
+     * Checks whether any subscriber is interested in the notifications of an entity of a topic,
+     * so that publishers can skip building notifications nobody receives.
+     * The check allocates nothing when nobody subscribes.
+     *
+     * @param topic The topic
+     * @param entityId The entity ID
+     * @return true if the entity or the whole topic has live subscribers, false otherwise
+     */
+    public boolean hasSubscribers(String topic, String entityId) {
+        ConcurrentHashMap<String, SubscriberRegistry> topicSubscriptions = subscriptions.get(topic);
+        if (topicSubscriptions == null || topicSubscriptions.isEmpty()) {
+            return false;
+        }
+        return hasSubscribers(topicSubscriptions, entityKey(entityId)) || hasSubscribers(topicSubscriptions, WILDCARD);
+    }
+
+    /**
+     * Checks whether an entity of a topic has live subscribers.
+     * The entity is dropped from the subscriptions if all its subscribers have been garbage collected.
+     *
+     * @param topicSubscriptions The subscriptions of the topic
+     * @param entityKey The entity ID, or the wildcard
+     * @return true if the entity has live subscribers, false otherwise
+     */
+    private static boolean hasSubscribers(ConcurrentHashMap<String, SubscriberRegistry> topicSubscriptions, String entityKey) {
+        SubscriberRegistry subscribers = topicSubscriptions.get(entityKey);
+        if (subscribers == null) {
+            return false;
+        }
+        if (subscribers.isEmpty()) {
+            return topicSubscriptions.computeIfPresent(entityKey, (k, registry) -> registry.isEmpty() ? null : registry) != null;
+        }
+        return true;
+    }
+
+    /**
+     * Publishes a notification of an entity of a topic to the subscribers of the entity and the wildcard subscribers of the topic.
+     *
+     * @param topic The topic
+     * @param entityId The entity ID
+     * @param notification The notification to be published
+     */
+    public void publish(String topic, String entityId, Notification notification) {
+        ConcurrentHashMap<String, SubscriberRegistry> topicSubscriptions = subscriptions.get(topic);
+        if (topicSubscriptions == null) {
+            return;
+        }
+        SubscriberRegistry entitySubscribers = topicSubscriptions.get(entityKey(entityId));
+        if (entitySubscribers != null) {
+            entitySubscribers.publish(notification);
+        }
+        SubscriberRegistry topicSubscribers = topicSubscriptions.get(WILDCARD);
+        if (topicSubscribers != null) {
+            topicSubscribers.publish(notification);
+        }
+    }
+}
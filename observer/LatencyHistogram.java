@@ -0,0 +1,115 @@
+package observer;
+
+/**
+ * The LatencyHistogram class represents the distribution of the delivery latencies of notifications.
+ * <p>
+ * The latencies are counted in logarithmic buckets, with {@value #SUB_BUCKETS} buckets for each power of two microseconds,
+ * so recording a latency is O(1), the histogram takes a fixed amount of memory, and a percentile is accurate to within 25%.
+ * </p>
+ * It is not thread-safe, so the caller must guard it with a lock.
+ */
+public class LatencyHistogram {
+    /**
+     * The number of buckets for each power of two microseconds.
+     */
+    public static final int SUB_BUCKETS = 4;
+
+    /**
+     * The number of powers of two microseconds covered by the histogram, i.e., up to about two hours.
+     */
+    private static final int MAGNITUDES = 32;
+
+    /**
+     * The number of latencies in each bucket.
+     */
+    private long[] counts;
+
+    /**
+     * The total number of latencies recorded.
+     */
+    private long totalCount;
+
+    /**
+     * The largest latency recorded in microseconds, which caps the percentiles.
+     */
+    private long maxMicros;
+
+    /**
+     * Constructs a new empty LatencyHistogram.
+     */
+    public LatencyHistogram() {
+        this.counts = new long[MAGNITUDES * SUB_BUCKETS];
+    }
+
+    /**
+     * Finds the bucket of a latency.
+     *
+     * @param micros the latency in microseconds
+     * @return the index of the bucket
+     */
+    private static int getBucket(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) (micros >>> (magnitude - 2)) & (SUB_BUCKETS - 1);
+        return Math.min(magnitude * SUB_BUCKETS + subBucket - 4, MAGNITUDES * SUB_BUCKETS - 1);
+    }
+
+    /**
+     * Calculates the upper bound of a bucket.
+     *
+     * @param bucket the index of the bucket
+     * @return the largest latency of the bucket in microseconds
+     */
+    private static long getUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int magnitude = (bucket + 4) / SUB_BUCKETS;
+        int subBucket = (bucket + 4) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << (magnitude - 2)) - 1;
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts[getBucket(micros)]++;
+        totalCount++;
+        maxMicros = Math.max(maxMicros, micros);
+    }
+
+    /**
+     * Getter for the total number of latencies recorded.
+     *
+     * @return the total number of latencies recorded
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Calculates the latency at the specified percentile, e.g., the 99th percentile is the latency that 99% of the notifications are delivered within.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency at the percentile in milliseconds, or 0 if no latency has been recorded
+     */
+    public double getPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(getUpperBound(i), maxMicros) / 1e3;
+            }
+        }
+        return maxMicros / 1e3;
+    }
+}
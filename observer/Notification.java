@@ -1,59 +1,112 @@
 package observer;
 
+import java.util.Calendar;
+import java.util.Date;
+
 /**
- * The Notification class represents a notification message with details about
- * the subject and object involved in an action.
+ * The Notification class represents a notification of an event, which carries a compact typed payload,
+ * i.e., an event code and the IDs of the entities involved, rather than a prebuilt message.
+ * <p>
+ * The message and the key of the notification are only built when they are first asked for,
+ * so publishing a notification costs a single small allocation however many subscribers there are,
+ * and nothing is rendered for subscribers that never display it.
+ * Notifications are created with the static factory methods, one for each event code.
+ * </p>
+ * <p>
+ * Each notification has a priority class, which is urgent for low stock alerts, same-day cancellations and new outcome records,
+ * so that asynchronous subscribers deliver them ahead of the routine notifications.
+ * </p>
  */
 public class Notification {
     /**
-     * The name of the subject that this notification is related to.
-     * Example: "Patient"
+     * The event code of the notification.
+     */
+    private NotificationType type;
+
+    /**
+     * The ID of the entity that the notification is about, e.g., the appointment ID of an appointment event.
+     */
+    private String entityId;
+
+    /**
+     * The ID of the patient involved in the event, if any.
      */
-    private String subjectName;
+    private String patientId;
 
     /**
-     * The unique identifier for the subject.
+     * The ID of the doctor involved in the event, if any.
      */
-    private String subjectId;
+    private String doctorId;
 
     /**
-     * The action or state described by this notification.
-     * Example: "created"
+     * The detail of the event, e.g., the new status of an appointment, the name of a medicine, or a custom message.
      */
-    private String verb;
+    private String detail;
 
     /**
-     * The name of the object that the subject casts action to.
-     * Example: "Appointment"
+     * The value of the event, e.g., the stock level of a medicine.
      */
-    private String objectName;
+    private int value;
 
+    /**
+     * The limit of the event, e.g., the low stock level alert line of a medicine.
+     */
+    private int limit;
 
     /**
-     * The unique identifier for the object.
+     * The priority class of the notification, which decides the lane it is delivered in.
      */
-    private String objectId;
+    private NotificationPriority priority;
 
     /**
-     * A custom message that does not follow the subject-verb-object pattern.
+     * The rendered message of the notification, built on first use.
      */
     private String message;
 
     /**
-     * Constructs a new Notification with relevant details about the subject and object.
+     * The key of the notification, built on first use.
+     */
+    private String key;
+
+    /**
+     * Constructs a new Notification with the specified payload.
      *
-     * @param subjectName The name of the subject
-     * @param subjectId The ID of the subject
-     * @param verb The action performed by the subject
-     * @param objectName The name of the object
-     * @param objectId The ID of the object
+     * @param type The event code
+     * @param entityId The ID of the entity that the notification is about
+     * @param patientId The ID of the patient involved, or null
+     * @param doctorId The ID of the doctor involved, or null
+     * @param detail The detail of the event, or null
+     * @param value The value of the event
+     * @param limit The limit of the event
      */
-    public Notification(String subjectName, String subjectId, String verb, String objectName, String objectId) {
-        this.subjectName = subjectName;
-        this.subjectId = subjectId;
-        this.verb = verb;
-        this.objectName = objectName;
-        this.objectId = objectId;
+    private Notification(NotificationType type, String entityId, String patientId, String doctorId, String detail, int value, int limit) {
+        this.type = type;
+        this.entityId = entityId;
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.detail = detail;
+        this.value = value;
+        this.limit = limit;
+        this.priority = getDefaultPriority(type);
+    }
+
+    /**
+     * Gets the priority class of the notifications of an event code,
+     * i.e., low stock alerts and new outcome records are urgent, stock level changes are low and the others are normal.
+     *
+     * @param type The event code
+     * @return The priority class
+     */
+    private static NotificationPriority getDefaultPriority(NotificationType type) {
+        switch (type) {
+            case MEDICINE_LOW_STOCK:
+            case OUTCOME_RECORD_ADDED:
+                return NotificationPriority.URGENT;
+            case MEDICINE_STOCK_CHANGED:
+                return NotificationPriority.LOW;
+            default:
+                return NotificationPriority.NORMAL;
+        }
     }
 
     /**
@@ -62,57 +115,275 @@ public class Notification {
      * @param message The custom message
      */
     public Notification(String message) {
-        this.message = message;
+        this(NotificationType.MESSAGE, null, null, null, message, 0, 0);
+    }
+
+    /**
+     * Constructs a new Notification with a custom message about an entity,
+     * so that a newer notification about the same entity can replace it.
+     *
+     * @param message The custom message
+     * @param key The key of the entity that the message is about
+     */
+    public Notification(String message, String key) {
+        this(NotificationType.MESSAGE, null, null, null, message, 0, 0);
+        this.key = key;
+    }
+
+    /**
+     * Creates a notification of an appointment added under a doctor.
+     *
+     * @param appointmentId The ID of the appointment
+     * @param patientId The ID of the patient of the appointment
+     * @param doctorId The ID of the doctor of the appointment
+     * @return The notification
+     */
+    public static Notification appointmentAdded(String appointmentId, String patientId, String doctorId) {
+        return new Notification(NotificationType.APPOINTMENT_ADDED, appointmentId, patientId, doctorId, null, 0, 0);
+    }
+
+    /**
+     * Creates a notification of an appointment removed by its patient.
+     *
+     * @param appointmentId The ID of the appointment
+     * @param patientId The ID of the patient of the appointment
+     * @param doctorId The ID of the doctor of the appointment
+     * @return The notification
+     */
+    public static Notification appointmentRemoved(String appointmentId, String patientId, String doctorId) {
+        return new Notification(NotificationType.APPOINTMENT_REMOVED, appointmentId, patientId, doctorId, null, 0, 0);
+    }
+
+    /**
+     * Creates a notification of a status change of an appointment.
+     * The cancellation of an appointment on the current day is urgent.
+     *
+     * @param appointmentId The ID of the appointment
+     * @param patientId The ID of the patient of the appointment
+     * @param doctorId The ID of the doctor of the appointment
+     * @param status The name of the new status of the appointment
+     * @param date The date of the appointment
+     * @return The notification
+     */
+    public static Notification appointmentStatusChanged(String appointmentId, String patientId, String doctorId, String status, Date date) {
+        Notification notification = new Notification(NotificationType.APPOINTMENT_STATUS_CHANGED, appointmentId, patientId, doctorId, status, 0, 0);
+        if ("CANCELLED".equals(status) && isToday(date)) {
+            notification.priority = NotificationPriority.URGENT;
+        }
+        return notification;
+    }
+
+    /**
+     * Checks whether a date is on the current day.
+     *
+     * @param date The date
+     * @return true if the date is on the current day, false otherwise
+     */
+    private static boolean isToday(Date date) {
+        Calendar today = Calendar.getInstance();
+        Calendar day = Calendar.getInstance();
+        day.setTime(date);
+        return day.get(Calendar.YEAR) == today.get(Calendar.YEAR) && day.get(Calendar.DAY_OF_YEAR) == today.get(Calendar.DAY_OF_YEAR);
+    }
+
+    /**
+     * Creates a notification of an outcome record added to an appointment.
+     *
+     * @param appointmentId The ID of the appointment
+     * @param patientId The ID of the patient of the appointment
+     * @param doctorId The ID of the doctor of the appointment
+     * @return The notification
+     */
+    public static Notification appointmentOutcomeRecorded(String appointmentId, String patientId, String doctorId) {
+        return new Notification(NotificationType.APPOINTMENT_OUTCOME_RECORDED, appointmentId, patientId, doctorId, null, 0, 0);
+    }
+
+    /**
+     * Creates a notification of an appointment outcome record added to the store.
+     *
+     * @param outcomeRecordId The ID of the appointment outcome record
+     * @return The notification
+     */
+    public static Notification outcomeRecordAdded(String outcomeRecordId) {
+        return new Notification(NotificationType.OUTCOME_RECORD_ADDED, outcomeRecordId, null, null, null, 0, 0);
+    }
+
+    /**
+     * Creates a notification of a stock level change of a medicine.
+     *
+     * @param medicineId The ID of the medicine
+     * @param stock The new stock level of the medicine
+     * @return The notification
+     */
+    public static Notification medicineStockChanged(String medicineId, int stock) {
+        return new Notification(NotificationType.MEDICINE_STOCK_CHANGED, medicineId, null, null, null, stock, 0);
+    }
+
+    /**
+     * Creates a notification of a medicine falling to or below its low stock level alert line.
+     *
+     * @param medicineId The ID of the medicine
+     * @param name The name of the medicine
+     * @param stock The stock level of the medicine
+     * @param threshold The low stock level alert line of the medicine
+     * @return The notification
+     */
+    public static Notification medicineLowStock(String medicineId, String name, int stock, int threshold) {
+        return new Notification(NotificationType.MEDICINE_LOW_STOCK, medicineId, null, null, name, stock, threshold);
+    }
+
+    /**
+     * Recreates a notification from its payload, e.g., when it is read back from a persistent inbox.
+     *
+     * @param type The event code
+     * @param entityId The ID of the entity that the notification is about
+     * @param patientId The ID of the patient involved, or null
+     * @param doctorId The ID of the doctor involved, or null
+     * @param detail The detail of the event, or null
+     * @param value The value of the event
+     * @param limit The limit of the event
+     * @return The notification
+     */
+    public static Notification restore(NotificationType type, String entityId, String patientId, String doctorId, String detail, int value, int limit) {
+        return new Notification(type, entityId, patientId, doctorId, detail, value, limit);
+    }
+
+    /**
+     * Retrieves the event code of the notification.
+     *
+     * @return The event code.
+     */
+    public NotificationType getType() {
+        return type;
+    }
+
+    /**
+     * Retrieves the ID of the entity that the notification is about.
+     *
+     * @return The ID of the entity, or null for a custom message.
+     */
+    public String getEntityId() {
+        return entityId;
+    }
+
+    /**
+     * Retrieves the ID of the patient involved in the event.
+     *
+     * @return The ID of the patient, or null if no patient is involved.
+     */
+    public String getPatientId() {
+        return patientId;
+    }
+
+    /**
+     * Retrieves the ID of the doctor involved in the event.
+     *
+     * @return The ID of the doctor, or null if no doctor is involved.
+     */
+    public String getDoctorId() {
+        return doctorId;
     }
 
     /**
-     * Retrieves the name of the subject.
+     * Retrieves the detail of the event.
      *
-     * @return The name of the subject.
+     * @return The detail of the event, or null if the event has no detail.
      */
-    public String getSubjectName() {
-        return subjectName;
+    public String getDetail() {
+        return detail;
     }
 
     /**
-     * Retrieves the ID of the subject related to this notification.
+     * Retrieves the value of the event.
      *
-     * @return The ID of the subject.
+     * @return The value of the event.
      */
-    public String getSubjectId() {
-        return subjectId;
+    public int getValue() {
+        return value;
     }
 
     /**
-     * Retrieves the name of the object.
+     * Retrieves the limit of the event.
      *
-     * @return The name of the object.
+     * @return The limit of the event.
      */
-    public String getObjectName() {
-        return objectName;
+    public int getLimit() {
+        return limit;
     }
 
     /**
-     * Retrieves the ID of the object.
+     * Retrieves the priority class of the notification.
      *
-     * @return The ID of the object.
+     * @return The priority class.
      */
-    public String getObjectId() {
-        return objectId;
+    public NotificationPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Retrieves the key that identifies what this notification is about,
+     * so that a newer notification can replace an older one with the same key.
+     * An event is keyed by the entity it is about, and a custom message by the key of its entity if given, or by the message itself otherwise.
+     *
+     * @return The key of the notification.
+     */
+    public String getKey() {
+        if (key == null) {
+            switch (type) {
+                case APPOINTMENT_ADDED:
+                case APPOINTMENT_REMOVED:
+                case APPOINTMENT_STATUS_CHANGED:
+                case APPOINTMENT_OUTCOME_RECORDED:
+                    key = "Appointment " + entityId;
+                    break;
+                case OUTCOME_RECORD_ADDED:
+                    key = "Appointment outcome record " + entityId;
+                    break;
+                case MEDICINE_STOCK_CHANGED:
+                case MEDICINE_LOW_STOCK:
+                    key = "Medicine " + entityId;
+                    break;
+                default:
+                    key = detail;
+            }
+        }
+        return key;
     }
 
     /**
-     * Returns a structured message of the Notification object.
-     * If the custom message is used to construct this Notification object, it returns it directly.
-     * Otherwise, it structures the message in the format:
-     * "subjectName (subjectId) verb objectName (objectId)".
+     * Returns the message of the Notification object, which is rendered from the payload on first use.
      *
-     * @return the structured message
+     * @return the message
      */
     public String toString() {
-        if (message != null) {
-            return message;
+        if (message == null) {
+            switch (type) {
+                case APPOINTMENT_ADDED:
+                    message = "Appointment (" + entityId + ") is added under Doctor (" + doctorId + ")";
+                    break;
+                case APPOINTMENT_REMOVED:
+                    message = "Patient (" + patientId + ") removed Appointment (" + entityId + ")";
+                    break;
+                case APPOINTMENT_STATUS_CHANGED:
+                    message = "Your Appointment " + entityId + " has been " + detail;
+                    break;
+                case APPOINTMENT_OUTCOME_RECORDED:
+                    message = "Your Appointment " + entityId + " has an outcome record";
+                    break;
+                case OUTCOME_RECORD_ADDED:
+                    message = "Appointment outcome record " + entityId + " has been added";
+                    break;
+                case MEDICINE_STOCK_CHANGED:
+                    message = "Medicine " + entityId + " has a stock level of " + value;
+                    break;
+                case MEDICINE_LOW_STOCK:
+                    message = "Medicine " + detail + " (" + entityId + ") is low in stock: "
+                        + value + " left, low stock level alert line is " + limit;
+                    break;
+                default:
+                    message = detail;
+            }
         }
-        return subjectName + " (" + subjectId + ") " + verb + " " + objectName + " (" + objectId + ")";
+        return message;
     }
 }
@@ -0,0 +1,185 @@
+package observer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The NotificationInbox class represents a bounded inbox of notifications received by a dashboard view.
+ * <p>
+ * The notifications are stored in a ring buffer of fixed capacity, where the oldest notification is evicted when the inbox is full.
+ * A new notification with the same key as a notification in the inbox, e.g., another status change of the same appointment,
+ * replaces it, so that repeated events about the same entity take up one place only.
+ * The inbox keeps an unread counter and supports paged reads from the newest notification.
+ * </p>
+ */
+public class NotificationInbox {
+    /**
+     * The ring buffer of notifications, where a null slot is a notification replaced by a newer one with the same key.
+     */
+    private Notification[] notifications;
+
+    /**
+     * The read status of the notifications, in the same slots as the ring buffer of notifications.
+     */
+    private boolean[] isRead;
+
+    /**
+     * The index of the oldest slot in the ring buffer.
+     */
+    private int head;
+
+    /**
+     * The number of slots in use in the ring buffer, including the replaced notifications.
+     */
+    private int size;
+
+    /**
+     * The number of notifications in the inbox.
+     */
+    private int count;
+
+    /**
+     * The number of unread notifications in the inbox.
+     */
+    private int unreadCount;
+
+    /**
+     * A HashMap to store the slot of the notification with each key.
+     * The key is the key of the notification and the value is its slot in the ring buffer.
+     */
+    private HashMap<String, Integer> slots;
+
+    /**
+     * Constructs a new empty NotificationInbox with the specified capacity.
+     *
+     * @param capacity The maximum number of notifications kept in the inbox
+     */
+    public NotificationInbox(int capacity) {
+        this.notifications = new Notification[capacity];
+        this.isRead = new boolean[capacity];
+        this.slots = new HashMap<String, Integer>();
+    }
+
+    /**
+     * Adds a notification to the inbox as unread.
+     * A notification with the same key in the inbox is replaced, and the oldest notification is evicted if the inbox is full.
+     *
+     * @param notification The notification to be added
+     */
+    public synchronized void add(Notification notification) {
+        Integer slot = slots.remove(notification.getKey());
+        if (slot != null) {
+            remove(slot);
+        }
+        if (size == notifications.length) {
+            if (count < size) {
+                compact();
+            } else {
+                remove(head);
+            }
+        }
+        while (size > 0 && notifications[head] == null) {
+            head = (head + 1) % notifications.length;
+            size--;
+        }
+
+        int tail = (head + size) % notifications.length;
+        notifications[tail] = notification;
+        isRead[tail] = false;
+        slots.put(notification.getKey(), tail);
+        size++;
+        count++;
+        unreadCount++;
+    }
+
+    /**
+     * Removes the notification in a slot of the ring buffer, leaving the slot empty.
+     * The slot of the key of the notification is removed as well if it is the oldest slot.
+     *
+     * @param slot The slot in the ring buffer
+     */
+    private void remove(int slot) {
+        Notification notification = notifications[slot];
+        if (notification == null) {
+            return;
+        }
+        if (slot == head) {
+            slots.remove(notification.getKey(), slot);
+        }
+        if (!isRead[slot]) {
+            unreadCount--;
+        }
+        notifications[slot] = null;
+        count--;
+    }
+
+    /**
+     * Moves the notifications to the front of the ring buffer, dropping the empty slots left by the replaced notifications.
+     */
+    private void compact() {
+        Notification[] compacted = new Notification[notifications.length];
+        boolean[] compactedIsRead = new boolean[notifications.length];
+        int n = 0;
+        slots.clear();
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) % notifications.length;
+            if (notifications[slot] != null) {
+                compacted[n] = notifications[slot];
+                compactedIsRead[n] = isRead[slot];
+                slots.put(compacted[n].getKey(), n);
+                n++;
+            }
+        }
+        notifications = compacted;
+        isRead = compactedIsRead;
+        head = 0;
+        size = n;
+    }
+
+    /**
+     * Reads a page of notifications, from the newest to the oldest, and marks them as read.
+     *
+     * @param page The page number, starting from 0
+     * @param pageSize The number of notifications per page
+     * @return The list of notifications on the page, which is empty if the page is beyond the last page
+     */
+    public synchronized List<Notification> read(int page, int pageSize) {
+        List<Notification> notificationPage = new ArrayList<Notification>();
+        int skipped = 0;
+        for (int i = size - 1; i >= 0 && notificationPage.size() < pageSize; i--) {
+            int slot = (head + i) % notifications.length;
+            if (notifications[slot] == null) {
+                continue;
+            }
+            if (skipped < page * pageSize) {
+                skipped++;
+                continue;
+            }
+            notificationPage.add(notifications[slot]);
+            if (!isRead[slot]) {
+                isRead[slot] = true;
+                unreadCount--;
+            }
+        }
+        return notificationPage;
+    }
+
+    /**
+     * Getter for the number of notifications in the inbox.
+     *
+     * @return The number of notifications in the inbox
+     */
+    public synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * Getter for the number of unread notifications in the inbox.
+     *
+     * @return The number of unread notifications in the inbox
+     */
+    public synchronized int getUnreadCount() {
+        return unreadCount;
+    }
+}
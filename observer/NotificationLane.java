@@ -0,0 +1,278 @@
+package observer;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The NotificationLane class represents the queue of notifications of one priority class in an AsyncSubscriber.
+ * <p>
+ * It keeps a bounded ring buffer of the queued notifications with their publish times and counts the queued notifications of each key,
+ * together with the delivery metrics of the lane, i.e., the delivered, dropped and coalesced counts and the distribution of the delivery lag.
+ * </p>
+ * It is not thread-safe, so the caller must hold the lock of the AsyncSubscriber that owns the lane.
+ */
+public class NotificationLane {
+    /**
+     * The ring buffer of queued notifications.
+     */
+    private Notification[] notifications;
+
+    /**
+     * The time each queued notification was published in nanoseconds, in the same slots as the ring buffer of notifications.
+     */
+    private long[] publishTimes;
+
+    /**
+     * The index of the oldest queued notification in the ring buffer.
+     */
+    private int head;
+
+    /**
+     * The number of queued notifications.
+     */
+    private int size;
+
+    /**
+     * The number of queued notifications of each key.
+     * The key is the key of the notifications and the value is the number of them in the lane.
+     */
+    private HashMap<String, Integer> keyCounts;
+
+    /**
+     * The number of notifications delivered from the lane.
+     */
+    private long deliveredCount;
+
+    /**
+     * The number of notifications dropped because the lane was full.
+     */
+    private long droppedCount;
+
+    /**
+     * The number of notifications coalesced into a queued notification with the same key.
+     */
+    private long coalescedCount;
+
+    /**
+     * The longest delivery lag of all notifications delivered from the lane in nanoseconds.
+     */
+    private long maxDeliveryLag;
+
+    /**
+     * The distribution of the delivery lags of the notifications delivered from the lane.
+     */
+    private LatencyHistogram deliveryLags;
+
+    /**
+     * Constructs a new empty NotificationLane with the specified capacity.
+     *
+     * @param capacity the maximum number of queued notifications
+     */
+    public NotificationLane(int capacity) {
+        this.notifications = new Notification[capacity];
+        this.publishTimes = new long[capacity];
+        this.keyCounts = new HashMap<String, Integer>();
+        this.deliveryLags = new LatencyHistogram();
+    }
+
+    /**
+     * Checks whether the lane is full.
+     *
+     * @return true if no more notifications can be queued, false otherwise
+     */
+    public boolean isFull() {
+        return size == notifications.length;
+    }
+
+    /**
+     * Getter for the number of queued notifications.
+     *
+     * @return the queue depth of the lane
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Getter for the maximum number of queued notifications.
+     *
+     * @return the capacity of the lane
+     */
+    public int getCapacity() {
+        return notifications.length;
+    }
+
+    /**
+     * Counts the queued notifications with the specified key.
+     *
+     * @param key the key of the notifications
+     * @return the number of queued notifications with the key
+     */
+    public int count(String key) {
+        return keyCounts.getOrDefault(key, 0);
+    }
+
+    /**
+     * Queues a notification at the end of the lane, which must not be full.
+     *
+     * @param notification the notification to be queued
+     * @param publishTime the time the notification was published in nanoseconds
+     */
+    public void offer(Notification notification, long publishTime) {
+        int tail = (head + size) % notifications.length;
+        notifications[tail] = notification;
+        publishTimes[tail] = publishTime;
+        size++;
+        keyCounts.merge(notification.getKey(), 1, Integer::sum);
+    }
+
+    /**
+     * Replaces the last queued notification with the same key as the new notification, if any,
+     * so the new notification is still delivered after the other queued notifications with the key.
+     * The new notification takes the place of the replaced one in the lane and its publish time.
+     *
+     * @param notification the new notification
+     * @return true if the notification is coalesced, false if no queued notification has the same key
+     */
+    public boolean coalesce(Notification notification) {
+        String key = notification.getKey();
+        if (count(key) == 0) {
+            return false;
+        }
+        for (int i = size - 1; i >= 0; i--) {
+            int slot = (head + i) % notifications.length;
+            if (notifications[slot].getKey().equals(key)) {
+                notifications[slot] = notification;
+                coalescedCount++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Getter for the publish time of the oldest queued notification.
+     *
+     * @return the publish time in nanoseconds
+     */
+    public long getOldestPublishTime() {
+        return publishTimes[head];
+    }
+
+    /**
+     * Removes the oldest queued notification.
+     *
+     * @return the oldest queued notification
+     */
+    public Notification poll() {
+        Notification notification = notifications[head];
+        notifications[head] = null;
+        head = (head + 1) % notifications.length;
+        size--;
+        keyCounts.computeIfPresent(notification.getKey(), (key, count) -> count == 1 ? null : count - 1);
+        return notification;
+    }
+
+    /**
+     * Removes all queued notifications with the specified key, keeping the other notifications in their order.
+     *
+     * @param key the key of the notifications to be removed
+     * @param removed the list that the removed notifications are added to, from the oldest to the newest
+     * @param removedPublishTimes the list that the publish times of the removed notifications are added to, in the same order
+     */
+    public void removeAll(String key, List<Notification> removed, List<Long> removedPublishTimes) {
+        if (count(key) == 0) {
+            return;
+        }
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) % notifications.length;
+            if (notifications[slot].getKey().equals(key)) {
+                removed.add(notifications[slot]);
+                removedPublishTimes.add(publishTimes[slot]);
+            } else {
+                int keptSlot = (head + kept) % notifications.length;
+                notifications[keptSlot] = notifications[slot];
+                publishTimes[keptSlot] = publishTimes[slot];
+                kept++;
+            }
+        }
+        for (int i = kept; i < size; i++) {
+            notifications[(head + i) % notifications.length] = null;
+        }
+        size = kept;
+        keyCounts.remove(key);
+    }
+
+    /**
+     * Drops the oldest queued notification to make room for a new one.
+     */
+    public void dropOldest() {
+        poll();
+        droppedCount++;
+    }
+
+    /**
+     * Counts a notification that was dropped without being queued.
+     */
+    public void recordDrop() {
+        droppedCount++;
+    }
+
+    /**
+     * Records the delivery of a notification from the lane.
+     *
+     * @param lag the delivery lag of the notification in nanoseconds
+     */
+    public void recordDelivery(long lag) {
+        deliveredCount++;
+        maxDeliveryLag = Math.max(maxDeliveryLag, lag);
+        deliveryLags.record(lag);
+    }
+
+    /**
+     * Getter for the number of notifications delivered from the lane.
+     *
+     * @return the number of delivered notifications
+     */
+    public long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    /**
+     * Getter for the number of notifications dropped because the lane was full.
+     *
+     * @return the number of dropped notifications
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Getter for the number of notifications coalesced into a queued notification with the same key.
+     *
+     * @return the number of coalesced notifications
+     */
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    /**
+     * Getter for the longest delivery lag of all notifications delivered from the lane.
+     *
+     * @return the longest delivery lag in nanoseconds
+     */
+    public long getMaxDeliveryLag() {
+        return maxDeliveryLag;
+    }
+
+    /**
+     * Calculates the delivery lag at the specified percentile of the notifications delivered from the lane.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the delivery lag at the percentile in milliseconds
+     */
+    public double getDeliveryLagPercentile(double percentile) {
+        return deliveryLags.getPercentile(percentile);
+    }
+}
@@ -0,0 +1,14 @@
+package observer;
+
+/**
+ * Enumeration representing the priority class of a notification, which decides the lane it is queued in for delivery.
+ * <ul>
+ *  <li>URGENT: events that need attention right away, i.e., low stock alerts, same-day cancellations and new outcome records.</li>
+ *  <li>NORMAL: routine events, e.g., appointments being added or confirmed.</li>
+ *  <li>LOW: high-volume events that are only informative, i.e., stock level changes.</li>
+ * </ul>
+ * The lanes are drained in the order of the priority classes, so an urgent notification never waits behind a routine one about another entity.
+ */
+public enum NotificationPriority {
+    URGENT, NORMAL, LOW
+}
@@ -0,0 +1,9 @@
+package observer;
+
+/**
+ * Enumeration representing the event code of a notification, which decides how the notification is rendered and keyed.
+ */
+public enum NotificationType {
+    APPOINTMENT_ADDED, APPOINTMENT_REMOVED, APPOINTMENT_STATUS_CHANGED, APPOINTMENT_OUTCOME_RECORDED,
+    OUTCOME_RECORD_ADDED, MEDICINE_STOCK_CHANGED, MEDICINE_LOW_STOCK, MESSAGE
+}
@@ -0,0 +1,13 @@
+package observer;
+
+/**
+ * Enumeration representing what an asynchronous subscriber does when its queue of notifications is full.
+ * <ul>
+ *  <li>DROP_OLDEST: the oldest queued notification is dropped to make room for the new one.</li>
+ *  <li>BLOCK: the publisher waits until there is room in the queue.</li>
+ *  <li>COALESCE: a queued notification with the same key is replaced by the new one, otherwise the oldest one is dropped.</li>
+ * </ul>
+ */
+public enum OverflowPolicy {
+    DROP_OLDEST, BLOCK, COALESCE
+}
@@ -0,0 +1,81 @@
+package observer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * The SubscriberRegistry class represents a set of subscribers that are only weakly referenced.
+ * <p>
+ * A subscriber that is no longer reachable from anywhere else, e.g., a dashboard view evicted from the view cache,
+ * drops out of the registry by itself once it is garbage collected, so publishers never keep subscribers alive.
+ * A subscriber must therefore be kept reachable by its owner for as long as it should receive notifications.
+ * </p>
+ */
+public class SubscriberRegistry {
+    /**
+     * The set of weakly referenced subscribers.
+     */
+    private Set<ISubscriber> subscribers;
+
+    /**
+     * Constructs a new empty SubscriberRegistry.
+     */
+    public SubscriberRegistry() {
+        this.subscribers = Collections.newSetFromMap(new WeakHashMap<ISubscriber, Boolean>());
+    }
+
+    /**
+     * Adds a subscriber to the registry.
+     *
+     * @param subscriber The subscriber to be added
+     */
+    public synchronized void subscribe(ISubscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Removes a subscriber from the registry.
+     *
+     * @param subscriber The subscriber to be removed
+     */
+    public synchronized void unsubscribe(ISubscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Checks whether the registry has no live subscribers.
+     *
+     * @return true if the registry has no live subscribers, false otherwise
+     */
+    public synchronized boolean isEmpty() {
+        return subscribers.isEmpty();
+    }
+
+    /**
+     * Getter for the number of live subscribers in the registry.
+     *
+     * @return The number of live subscribers
+     */
+    public synchronized int size() {
+        return subscribers.size();
+    }
+
+    /**
+     * Notifies all live subscribers in the registry.
+     * The subscribers are notified outside the lock of the registry, so they may subscribe or unsubscribe while being notified.
+     *
+     * @param notification The notification to be sent to subscribers
+     */
+    public void publish(Notification notification) {
+        List<ISubscriber> currentSubscribers;
+        synchronized (this) {
+            currentSubscribers = new ArrayList<ISubscriber>(subscribers);
+        }
+        for (ISubscriber subscriber : currentSubscribers) {
+            subscriber.update(notification);
+        }
+    }
+}
@@ -2,16 +2,36 @@ package store;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import model.AppointmentOutcomeRecord;
+import model.Medicine;
+import model.PickListItem;
+import model.Prescription;
+import model.PrescriptionStatus;
 import observer.ISubscriber;
 import observer.Notification;
+import observer.SubscriberRegistry;
 
 /**
  * The AppointmentOutcomeRecordStore class is responsible for managing the storage and retrieval of Appointment Outcome Records.
  * It supports adding, removing, updating, and retrieving appointment outcome records and notifying subscribers of additions and removals.
+ * <p>
+ * It also keeps a FIFO work queue of the appointment outcome records with pending prescriptions,
+ * from which pharmacists claim the next record to dispense in O(1).
+ * A record is claimed by at most one pharmacist at a time, and it is put back into the queue when released
+ * if it still has pending prescriptions.
+ * </p>
+ * <p>
+ * The total quantity of each medicine required by all pending prescriptions is kept in counters
+ * that are updated incrementally when records are added and prescriptions are dispensed,
+ * so that the dispensary pick list never scans the records.
+ * </p>
  */
 public class AppointmentOutcomeRecordStore {
     /**
@@ -27,9 +47,35 @@ public class AppointmentOutcomeRecordStore {
     private static HashMap<String, AppointmentOutcomeRecord> appointmentOutcomeRecords = new HashMap<String, AppointmentOutcomeRecord>();
 
     /**
-     * A static HashSet to store subscribers that subscribe to appointment outcome record addition and removal notifications.
+     * A static ConcurrentLinkedQueue of the IDs of the appointment outcome records with pending prescriptions, in the order they are queued.
+     * The records that have no pending prescriptions by the time they reach the head are dropped lazily.
      */
-    private static HashSet<ISubscriber> subscribers = new HashSet<ISubscriber>();
+    private static Queue<String> pendingQueue = new ConcurrentLinkedQueue<String>();
+
+    /**
+     * A static ConcurrentHashMap of the appointment outcome records that are either in the work queue or claimed by a pharmacist.
+     * The key is the appointment outcome record ID and the value is true if the record is claimed, false if it is queued.
+     * It guarantees that a record is queued at most once and is never queued while claimed.
+     */
+    private static ConcurrentHashMap<String, Boolean> pendingWorkItems = new ConcurrentHashMap<String, Boolean>();
+
+    /**
+     * A static TreeMap to store the total quantity of each medicine required by all pending prescriptions.
+     * The key is the medicine ID and the value is the required quantity.
+     */
+    private static TreeMap<String, Integer> pendingQuantities = new TreeMap<String, Integer>();
+
+    /**
+     * A static HashMap to store the medicines required by pending prescriptions.
+     * The key is the medicine ID and the value is the medicine.
+     */
+    private static HashMap<String, Medicine> pendingMedicines = new HashMap<String, Medicine>();
+
+    /**
+     * A static SubscriberRegistry to store subscribers that subscribe to appointment outcome record addition and removal notifications,
+     * which are weakly referenced.
+     */
+    private static SubscriberRegistry subscribers = new SubscriberRegistry();
 
     /**
      * Adds a new appointment outcome record to the store and generates an appointment outcome record ID for the record.
@@ -43,8 +89,11 @@ public class AppointmentOutcomeRecordStore {
         String id = "R" + String.format("%06d", ++nextId);
         appointmentOutcomeRecords.put(id, record);
         record.setAppointmentOutcomeRecordId(id);
-        Notification notification = new Notification("Appointment outcome record " + id + " has been added");
-        notifySubscribers(notification);
+        addPendingQuantities(record, 1);
+        enqueuePendingRecord(id);
+        if (!subscribers.isEmpty()) {
+            notifySubscribers(Notification.outcomeRecordAdded(id));
+        }
         return id;
     }
 
@@ -55,7 +104,10 @@ public class AppointmentOutcomeRecordStore {
      * @param id The ID of the appointment outcome record to be removed
      */
     public static void removeRecord(String id) {
-        appointmentOutcomeRecords.remove(id);
+        AppointmentOutcomeRecord record = appointmentOutcomeRecords.remove(id);
+        if (record != null) {
+            addPendingQuantities(record, -1);
+        }
     }
 
     /**
@@ -65,7 +117,12 @@ public class AppointmentOutcomeRecordStore {
      * @param record The new appointment outcome record
      */
     public static void updateRecord(String id, AppointmentOutcomeRecord record) {
-        appointmentOutcomeRecords.put(id, record);
+        AppointmentOutcomeRecord oldRecord = appointmentOutcomeRecords.put(id, record);
+        if (oldRecord != null) {
+            addPendingQuantities(oldRecord, -1);
+        }
+        addPendingQuantities(record, 1);
+        enqueuePendingRecord(id);
     }
 
     /**
@@ -87,13 +144,112 @@ public class AppointmentOutcomeRecordStore {
         return appointmentOutcomeRecords.get(id);
     }
 
+    /**
+     * Puts the appointment outcome record with the given ID into the work queue if it has pending prescriptions
+     * and is neither queued nor claimed already.
+     *
+     * @param id The ID of the appointment outcome record
+     */
+    public static void enqueuePendingRecord(String id) {
+        AppointmentOutcomeRecord record = appointmentOutcomeRecords.get(id);
+        if (record != null && record.getPendingCount() > 0 && pendingWorkItems.putIfAbsent(id, false) == null) {
+            pendingQueue.offer(id);
+        }
+    }
+
+    /**
+     * Claims the appointment outcome record at the head of the work queue.
+     * The claimed record is not handed out again until it is released.
+     *
+     * @return The claimed appointment outcome record, or null if no record has pending prescriptions
+     */
+    public static AppointmentOutcomeRecord claimPendingRecord() {
+        String id;
+        while ((id = pendingQueue.poll()) != null) {
+            AppointmentOutcomeRecord record = appointmentOutcomeRecords.get(id);
+            if (record != null && record.getPendingCount() > 0) {
+                pendingWorkItems.put(id, true);
+                return record;
+            }
+            pendingWorkItems.remove(id);
+        }
+        return null;
+    }
+
+    /**
+     * Releases a claimed appointment outcome record and puts it back into the work queue if it still has pending prescriptions.
+     *
+     * @param id The ID of the claimed appointment outcome record
+     */
+    public static void releasePendingRecord(String id) {
+        if (pendingWorkItems.remove(id, true)) {
+            enqueuePendingRecord(id);
+        }
+    }
+
+    /**
+     * Adds the quantities of the pending prescriptions of an appointment outcome record to the pending quantity counters,
+     * or subtracts them if the sign is negative.
+     *
+     * @param record The appointment outcome record
+     * @param sign 1 to add the quantities, -1 to subtract them
+     */
+    private static void addPendingQuantities(AppointmentOutcomeRecord record, int sign) {
+        synchronized (record) {
+            for (Prescription prescription : record.getPrescriptions()) {
+                if (prescription.getStatus() == PrescriptionStatus.PENDING) {
+                    updatePendingQuantity(prescription.getMedicine(), sign * prescription.getQuantity());
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates the pending quantity counter of a medicine by the given delta,
+     * e.g., a negative delta when a pending prescription of the medicine is dispensed.
+     * The counter is dropped when it reaches 0.
+     *
+     * @param medicine The medicine
+     * @param delta The change in the total quantity of the medicine required by pending prescriptions
+     */
+    public static void updatePendingQuantity(Medicine medicine, int delta) {
+        String medicineId = medicine.getMedicineId();
+        synchronized (pendingQuantities) {
+            int quantity = pendingQuantities.getOrDefault(medicineId, 0) + delta;
+            if (quantity > 0) {
+                pendingQuantities.put(medicineId, quantity);
+                pendingMedicines.put(medicineId, medicine);
+            } else {
+                pendingQuantities.remove(medicineId);
+                pendingMedicines.remove(medicineId);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the dispensary pick list, i.e., the total quantity of each medicine required by all pending prescriptions
+     * together with its current stock level, in ascending medicine ID order.
+     *
+     * @return A list of the pick list items
+     */
+    public static List<PickListItem> getPickList() {
+        List<PickListItem> pickList = new ArrayList<PickListItem>();
+        synchronized (pendingQuantities) {
+            for (Map.Entry<String, Integer> entry : pendingQuantities.entrySet()) {
+                Medicine medicine = pendingMedicines.get(entry.getKey());
+                pickList.add(new PickListItem(medicine, entry.getValue(), medicine.getStock()));
+            }
+        }
+        return pickList;
+    }
+
     /**
      * Registers a subscriber to appointment outcome record addition and removal notifications.
      *
      * @param subscriber The subscriber to register
      */
     public static void subscribe(ISubscriber subscriber) {
-        subscribers.add(subscriber);
+        subscribers.subscribe(subscriber);
     }
 
     /**
@@ -102,7 +258,7 @@ public class AppointmentOutcomeRecordStore {
      * @param subscriber The subscriber to unregister
      */
     public static void unsubscribe(ISubscriber subscriber) {
-        subscribers.remove(subscriber);
+        subscribers.unsubscribe(subscriber);
     }
 
     /**
@@ -111,8 +267,6 @@ public class AppointmentOutcomeRecordStore {
      * @param notification The notification to be sent to subscribers
      */
     public static void notifySubscribers(Notification notification) {
-        for (ISubscriber subscriber : subscribers) {
-            subscriber.update(notification);
-        }
+        subscribers.publish(notification);
     }
 }
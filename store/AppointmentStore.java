@@ -2,16 +2,21 @@ package store;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 
 import model.Appointment;
+import observer.EventBus;
 import observer.ISubscriber;
 import observer.Notification;
 
 /**
  * The AppointmentStore class is responsible for managing the storage and retrieval of Appointment records.
  * It supports adding, removing, updating, and retrieving appointment records and notifying subscribers of additions and removals.
+ * <p>
+ * The notifications are routed through an event bus by the doctor ID of the appointment,
+ * so that each doctor only receives the notifications of their own appointments,
+ * while wildcard subscribers such as administrators receive the notifications of all appointments.
+ * </p>
  */
 public class AppointmentStore {
     /**
@@ -27,9 +32,14 @@ public class AppointmentStore {
     private static HashMap<String, Appointment> appointments = new HashMap<String, Appointment>();
 
     /**
-     * A static HashSet to store subscribers that subscribe to appointment addition and removal notifications.
+     * The topic of the notifications routed by the doctor ID of the appointment.
      */
-    private static HashSet<ISubscriber> subscribers = new HashSet<ISubscriber>();
+    public static final String DOCTOR_TOPIC = "Doctor";
+
+    /**
+     * A static EventBus to route appointment addition and removal notifications to the interested subscribers.
+     */
+    private static EventBus eventBus = new EventBus();
 
     /**
      * Adds a new appointment record to the store and generates an appointment ID for the record.
@@ -43,13 +53,15 @@ public class AppointmentStore {
         String id = "AP" + String.format("%06d", ++nextId);
         appointments.put(id, record);
         record.setAppointmentId(id);
-        Notification notification = new Notification("Appointment", id, "is added under", "Doctor", record.getDoctor().getUserId());
-        notifySubscribers(notification);
+        String doctorId = record.getDoctor().getUserId();
+        if (eventBus.hasSubscribers(DOCTOR_TOPIC, doctorId)) {
+            notifySubscribers(doctorId, Notification.appointmentAdded(id, record.getPatient().getUserId(), doctorId));
+        }
         return id;
     }
 
     /**
-     * Removes an appointment from the store based on the given ID.
+     * Removes an appointment from the store based on the given ID and clears the subscriptions to the appointment.
      * A removal notification will be sent to subscribers.
      *
      * @param id The ID of the appointment record to be removed
@@ -57,8 +69,11 @@ public class AppointmentStore {
     public static void removeRecord(String id) {
         Appointment appointment = appointments.remove(id);
         if (appointment != null) {
-            Notification notification = new Notification("Patient", appointment.getPatient().getUserId(), "removed", "Appointment", id);
-            notifySubscribers(notification);
+            appointment.unsubscribeAll();
+            String doctorId = appointment.getDoctor().getUserId();
+            if (eventBus.hasSubscribers(DOCTOR_TOPIC, doctorId)) {
+                notifySubscribers(doctorId, Notification.appointmentRemoved(id, appointment.getPatient().getUserId(), doctorId));
+            }
         }
     }
 
@@ -92,31 +107,50 @@ public class AppointmentStore {
     }
 
     /**
-     * Registers a subscriber to appointment addition and removal notifications.
+     * Registers a subscriber to the addition and removal notifications of all appointments.
      *
      * @param subscriber The subscriber to register
      */
     public static void subscribe(ISubscriber subscriber) {
-        subscribers.add(subscriber);
+        eventBus.subscribe(DOCTOR_TOPIC, null, subscriber);
     }
 
     /**
-     * Unregisters a subscriber from appointment addition and removal notifications.
+     * Registers a subscriber to the addition and removal notifications of the appointments under a doctor.
+     *
+     * @param doctorId The doctor ID of the appointments
+     * @param subscriber The subscriber to register
+     */
+    public static void subscribe(String doctorId, ISubscriber subscriber) {
+        eventBus.subscribe(DOCTOR_TOPIC, doctorId, subscriber);
+    }
+
+    /**
+     * Unregisters a subscriber from the addition and removal notifications of all appointments.
      *
      * @param subscriber The subscriber to unregister
      */
     public static void unsubscribe(ISubscriber subscriber) {
-        subscribers.remove(subscriber);
+        eventBus.unsubscribe(DOCTOR_TOPIC, null, subscriber);
+    }
+
+    /**
+     * Unregisters a subscriber from the addition and removal notifications of the appointments under a doctor.
+     *
+     * @param doctorId The doctor ID of the appointments
+     * @param subscriber The subscriber to unregister
+     */
+    public static void unsubscribe(String doctorId, ISubscriber subscriber) {
+        eventBus.unsubscribe(DOCTOR_TOPIC, doctorId, subscriber);
     }
 
     /**
-     * Notifies all subscribers of an appointment addition or removal.
+     * Notifies the subscribers of a doctor and the subscribers of all appointments of an appointment addition or removal.
      *
+     * @param doctorId The doctor ID of the appointment
      * @param notification The notification to be sent to subscribers
      */
-    public static void notifySubscribers(Notification notification) {
-        for (ISubscriber subscriber : subscribers) {
-            subscriber.update(notification);
-        }
+    public static void notifySubscribers(String doctorId, Notification notification) {
+        eventBus.publish(DOCTOR_TOPIC, doctorId, notification);
     }
 }
@@ -123,6 +123,7 @@ public class DoctorStore {
 
     /**
      * Updates the record of a doctor with the given ID.
+     * The stored record is updated in place, so its ratings and rating statistics are kept.
      *
      * @param id The ID of the doctor to be upserted
      * @param record The new staff record containing updated information.
@@ -0,0 +1,156 @@
+package store;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import model.DomainEvent;
+import model.DomainEventType;
+
+/**
+ * The EventLogStore class is responsible for the append-only log of the domain events in the lifecycle of appointments.
+ * <p>
+ * Each appended event is given the next sequence number, starting from 0, and is never changed or removed,
+ * so the log can be replayed from any sequence number to rebuild a projection of the appointments.
+ * The events are kept in fixed-size chunks, so appending never copies the events already in the log,
+ * and readers only wait for appenders to publish the size of the log, never for a lock.
+ * </p>
+ * <p>
+ * Consumers of the log are identified by name, and each keeps a cursor, i.e., the sequence number of the next event it reads.
+ * A consumer can rewind its cursor to rebuild its projection from the start of the log.
+ * </p>
+ */
+public class EventLogStore {
+    /**
+     * The number of events in each chunk of the log.
+     */
+    private static final int CHUNK_SIZE = 1024;
+
+    /**
+     * The chunks of the log, where the event with sequence number n is at slot n % CHUNK_SIZE of chunk n / CHUNK_SIZE.
+     * The array is replaced by a larger copy when it runs out of chunks.
+     */
+    private static volatile DomainEvent[][] chunks = new DomainEvent[16][];
+
+    /**
+     * The number of events in the log, which is also the sequence number of the next event to be appended.
+     * It is only increased after the event has been written, so readers never see an unwritten slot.
+     */
+    private static volatile long size = 0;
+
+    /**
+     * A static ConcurrentHashMap to store the cursor of each consumer.
+     * The key is the name of the consumer and the value is the sequence number of the next event it reads.
+     */
+    private static ConcurrentHashMap<String, Long> cursors = new ConcurrentHashMap<String, Long>();
+
+    /**
+     * Appends a new event to the end of the log with the current time.
+     *
+     * @param type the type of the event
+     * @param entityId the ID of the entity that the event is about
+     * @param patientId the ID of the patient involved, or null
+     * @param doctorId the ID of the doctor involved, or null
+     * @param detail the detail of the event, or null
+     * @param value the value of the event
+     * @return the appended event with its sequence number
+     */
+    public static synchronized DomainEvent append(DomainEventType type, String entityId, String patientId, String doctorId, String detail, int value) {
+        long sequence = size;
+        int chunk = (int) (sequence / CHUNK_SIZE);
+        DomainEvent[][] currentChunks = chunks;
+        if (chunk == currentChunks.length) {
+            DomainEvent[][] grownChunks = new DomainEvent[currentChunks.length * 2][];
+            System.arraycopy(currentChunks, 0, grownChunks, 0, currentChunks.length);
+            currentChunks = grownChunks;
+        }
+        if (currentChunks[chunk] == null) {
+            currentChunks[chunk] = new DomainEvent[CHUNK_SIZE];
+        }
+        DomainEvent event = new DomainEvent(sequence, type, System.currentTimeMillis(), entityId, patientId, doctorId, detail, value);
+        currentChunks[chunk][(int) (sequence % CHUNK_SIZE)] = event;
+        chunks = currentChunks;
+        size = sequence + 1;
+        return event;
+    }
+
+    /**
+     * Getter for the number of events in the log, which is also the sequence number of the next event to be appended.
+     *
+     * @return the number of events in the log
+     */
+    public static long getSize() {
+        return size;
+    }
+
+    /**
+     * Reads the events of the log from the specified sequence number.
+     *
+     * @param fromSequence the sequence number of the first event to be read
+     * @param maxCount the maximum number of events to be read
+     * @return the list of events in ascending sequence number order, which is empty if there is no event from the sequence number
+     */
+    public static List<DomainEvent> read(long fromSequence, int maxCount) {
+        long end = Math.min(size, fromSequence + maxCount);
+        DomainEvent[][] currentChunks = chunks;
+        List<DomainEvent> events = new ArrayList<DomainEvent>();
+        for (long sequence = Math.max(0, fromSequence); sequence < end; sequence++) {
+            events.add(currentChunks[(int) (sequence / CHUNK_SIZE)][(int) (sequence % CHUNK_SIZE)]);
+        }
+        return events;
+    }
+
+    /**
+     * Replays the events of the log from the specified sequence number to the end of the log, e.g., to rebuild a projection.
+     *
+     * @param fromSequence the sequence number of the first event to be replayed
+     * @param consumer the consumer that each event is passed to in ascending sequence number order
+     * @return the sequence number of the next event after the replayed events
+     */
+    public static long replay(long fromSequence, Consumer<DomainEvent> consumer) {
+        long end = size;
+        DomainEvent[][] currentChunks = chunks;
+        for (long sequence = Math.max(0, fromSequence); sequence < end; sequence++) {
+            consumer.accept(currentChunks[(int) (sequence / CHUNK_SIZE)][(int) (sequence % CHUNK_SIZE)]);
+        }
+        return Math.max(fromSequence, end);
+    }
+
+    /**
+     * Getter for the cursor of a consumer.
+     *
+     * @param consumerId the name of the consumer
+     * @return the sequence number of the next event the consumer reads, which is 0 for a new consumer
+     */
+    public static long getCursor(String consumerId) {
+        return cursors.getOrDefault(consumerId, 0L);
+    }
+
+    /**
+     * Moves the cursor of a consumer to the specified sequence number, e.g., to 0 to rebuild its projection from the start of the log.
+     *
+     * @param consumerId the name of the consumer
+     * @param sequence the sequence number of the next event the consumer reads
+     */
+    public static void seek(String consumerId, long sequence) {
+        cursors.put(consumerId, sequence);
+    }
+
+    /**
+     * Reads the next events of a consumer from its cursor and moves the cursor past them.
+     * A consumer must not poll from more than one thread at a time.
+     *
+     * @param consumerId the name of the consumer
+     * @param maxCount the maximum number of events to be read
+     * @return the list of events in ascending sequence number order, which is empty if the consumer has read all events
+     */
+    public static List<DomainEvent> poll(String consumerId, int maxCount) {
+        long cursor = getCursor(consumerId);
+        List<DomainEvent> events = read(cursor, maxCount);
+        if (!events.isEmpty()) {
+            cursors.put(consumerId, cursor + events.size());
+        }
+        return events;
+    }
+}
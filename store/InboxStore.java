@@ -0,0 +1,254 @@
+package store;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import model.Appointment;
+import observer.ISubscriber;
+import observer.Notification;
+import observer.NotificationType;
+
+/**
+ * The InboxStore class is responsible for the persistent notification inbox of each user.
+ * <p>
+ * The notifications are appended to a single segment file, one record per notification, and are never rewritten.
+ * Marking notifications as read appends a cursor record instead, so the file is append-only.
+ * An in-memory index keeps the file offsets of the notifications of each user and the read cursor of each user,
+ * which is rebuilt by scanning the segment file on load, so a page of notifications is read from the file only when it is displayed.
+ * </p>
+ * <p>
+ * The appointment and outcome events are routed to the inbox of their recipient whether or not the recipient is logged in,
+ * i.e., the doctor of an added or removed appointment, and the patient of an appointment whose status changes or which has an outcome record.
+ * They are appended on the publisher's thread, so every notification is in the segment file before the change it reports returns.
+ * The doctor is also notified when the patient cancels an appointment, but not when the doctor declines one,
+ * so the patient's cancellation is added to the doctor's inbox by the cancelling controller rather than routed.
+ * </p>
+ */
+public class InboxStore {
+    /**
+     * The kind of the records that hold a notification.
+     */
+    private static final String NOTIFICATION_RECORD = "N";
+
+    /**
+     * The kind of the records that hold the read cursor of a user.
+     */
+    private static final String CURSOR_RECORD = "R";
+
+    /**
+     * The CSV format of the records, which keeps null fields distinct from empty ones.
+     */
+    private static final CSVFormat RECORD_FORMAT = CSVFormat.DEFAULT.builder().setNullString("\\N").build();
+
+    /**
+     * The segment file that the records are appended to.
+     */
+    private static RandomAccessFile segment;
+
+    /**
+     * A static HashMap to store the offsets of the notifications of each user in the segment file, from the oldest to the newest.
+     * The key is the user ID and the value is the list of offsets.
+     */
+    private static HashMap<String, List<Long>> offsets = new HashMap<String, List<Long>>();
+
+    /**
+     * A static HashMap to store the read cursor of each user, i.e., the number of their oldest notifications that have been read.
+     * The key is the user ID and the value is the read cursor.
+     */
+    private static HashMap<String, Integer> readCursors = new HashMap<String, Integer>();
+
+    /**
+     * The number of notifications that could not be added because the segment file could not be written.
+     */
+    private static long failedWriteCount = 0;
+
+    /**
+     * The subscriber that routes the appointment and outcome events to the inboxes of their recipients.
+     */
+    private static ISubscriber router = notification -> route(notification);
+
+    /**
+     * Opens the segment file from the specified file path, creating it if it does not exist, and rebuilds the index from it.
+     * A record left incomplete by an interrupted append is cut off the end of the file.
+     * The inbox store then starts receiving the appointment and outcome events of all appointments.
+     *
+     * @param filePath The path to the segment file
+     * @throws IOException If an I/O error occurs while reading the segment file
+     */
+    public static synchronized void load(String filePath) throws IOException {
+        segment = new RandomAccessFile(filePath, "rw");
+        offsets.clear();
+        readCursors.clear();
+        long offset = 0;
+        try {
+            while (offset < segment.length()) {
+                segment.seek(offset);
+                CSVRecord record = parse(segment.readUTF());
+                String userId = record.get(1);
+                if (NOTIFICATION_RECORD.equals(record.get(0))) {
+                    offsets.computeIfAbsent(userId, k -> new ArrayList<Long>()).add(offset);
+                } else {
+                    readCursors.put(userId, Integer.parseInt(record.get(2)));
+                }
+                offset = segment.getFilePointer();
+            }
+        } catch (EOFException e) {
+            segment.setLength(offset);
+        }
+
+        AppointmentStore.subscribe(router);
+        Appointment.subscribeToAllAppointments(router);
+    }
+
+    /**
+     * Parses a record of the segment file.
+     *
+     * @param line The record as a line of CSV
+     * @return The parsed record
+     * @throws IOException If the record is not valid CSV
+     */
+    private static CSVRecord parse(String line) throws IOException {
+        try (CSVParser parser = CSVParser.parse(line, RECORD_FORMAT)) {
+            return parser.getRecords().get(0);
+        }
+    }
+
+    /**
+     * Appends a record to the end of the segment file.
+     *
+     * @param values The fields of the record
+     * @return The offset of the record in the segment file
+     * @throws IOException If an I/O error occurs while writing the segment file
+     */
+    private static long append(Object... values) throws IOException {
+        long offset = segment.length();
+        segment.seek(offset);
+        segment.writeUTF(RECORD_FORMAT.format(values));
+        return offset;
+    }
+
+    /**
+     * Routes an appointment or outcome event to the inboxes of its recipients.
+     * The events of other types are ignored.
+     *
+     * @param notification The notification of the event
+     */
+    private static void route(Notification notification) {
+        switch (notification.getType()) {
+            case APPOINTMENT_ADDED:
+            case APPOINTMENT_REMOVED:
+                addRecord(notification.getDoctorId(), notification);
+                break;
+            case APPOINTMENT_STATUS_CHANGED:
+                addRecord(notification.getPatientId(), notification);
+                break;
+            case APPOINTMENT_OUTCOME_RECORDED:
+                addRecord(notification.getPatientId(), notification);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Adds a notification to the inbox of a user as unread.
+     * If the segment file cannot be written, the notification is not added and the failure is counted.
+     *
+     * @param userId The ID of the recipient
+     * @param notification The notification to be added
+     * @return true if the notification is added, false if the inbox store is not loaded, there is no recipient or the segment file cannot be written
+     */
+    public static synchronized boolean addRecord(String userId, Notification notification) {
+        if (segment == null || userId == null) {
+            return false;
+        }
+        try {
+            long offset = append(NOTIFICATION_RECORD, userId, notification.getType().name(), notification.getEntityId(),
+                notification.getPatientId(), notification.getDoctorId(), notification.getDetail(), notification.getValue(), notification.getLimit());
+            offsets.computeIfAbsent(userId, k -> new ArrayList<Long>()).add(offset);
+            return true;
+        } catch (IOException e) {
+            failedWriteCount++;
+            return false;
+        }
+    }
+
+    /**
+     * Getter for the number of notifications that could not be added because the segment file could not be written.
+     *
+     * @return The number of failed writes
+     */
+    public static synchronized long getFailedWriteCount() {
+        return failedWriteCount;
+    }
+
+    /**
+     * Reads the notification at an offset of the segment file.
+     *
+     * @param offset The offset of the notification record
+     * @return The notification
+     * @throws IOException If an I/O error occurs while reading the segment file
+     */
+    private static Notification readRecord(long offset) throws IOException {
+        segment.seek(offset);
+        CSVRecord record = parse(segment.readUTF());
+        return Notification.restore(NotificationType.valueOf(record.get(2)), record.get(3), record.get(4), record.get(5),
+            record.get(6), Integer.parseInt(record.get(7)), Integer.parseInt(record.get(8)));
+    }
+
+    /**
+     * Getter for the number of notifications in the inbox of a user.
+     *
+     * @param userId The ID of the user
+     * @return The number of notifications in the inbox
+     */
+    public static synchronized int getCount(String userId) {
+        List<Long> userOffsets = offsets.get(userId);
+        return userOffsets == null ? 0 : userOffsets.size();
+    }
+
+    /**
+     * Getter for the number of unread notifications in the inbox of a user.
+     *
+     * @param userId The ID of the user
+     * @return The number of unread notifications in the inbox
+     */
+    public static synchronized int getUnreadCount(String userId) {
+        return getCount(userId) - readCursors.getOrDefault(userId, 0);
+    }
+
+    /**
+     * Reads the next page of unread notifications in the inbox of a user, from the oldest to the newest, and marks them as read.
+     * Only the notifications on the page are read from the segment file.
+     *
+     * @param userId The ID of the user
+     * @param pageSize The maximum number of notifications on the page
+     * @return The list of notifications on the page, which is empty if there are no unread notifications
+     * @throws IOException If an I/O error occurs while reading or writing the segment file
+     */
+    public static synchronized List<Notification> readUnread(String userId, int pageSize) throws IOException {
+        List<Notification> notificationPage = new ArrayList<Notification>();
+        List<Long> userOffsets = offsets.get(userId);
+        if (userOffsets == null) {
+            return notificationPage;
+        }
+        int cursor = readCursors.getOrDefault(userId, 0);
+        int end = Math.min(cursor + pageSize, userOffsets.size());
+        for (int i = cursor; i < end; i++) {
+            notificationPage.add(readRecord(userOffsets.get(i)));
+        }
+        if (end > cursor) {
+            append(CURSOR_RECORD, userId, end);
+            readCursors.put(userId, end);
+        }
+        return notificationPage;
+    }
+}
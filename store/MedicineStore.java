@@ -5,18 +5,40 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.function.Predicate;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 
 import model.Medicine;
+import model.MedicineLot;
+import observer.ISubscriber;
+import observer.Notification;
+import observer.SubscriberRegistry;
 
 /**
  * The MedicineStore class is responsible for managing the storage and retrieval of Medicine records.
  * It supports loading medicine data from a CSV file, adding, removing, upserting, and retrieving medicine records.
+ * <p>
+ * It also keeps a watchlist of all medicines ordered by their stock level to low stock level alert line ratio,
+ * which is updated on every stock level change, so that the low stock medicines can be retrieved in O(k).
+ * Subscribers are notified the moment a medicine falls to or below its low stock level alert line.
+ * </p>
+ * <p>
+ * The pending replenishment requests are indexed as well, so that they can be approved in batches without scanning the inventory.
+ * </p>
+ * <p>
+ * The lots with expiry dates across the formulary are kept in an expiry-ordered index,
+ * so that the daily sweep of expired lots only visits the lots that have expired.
+ * </p>
  */
 public class MedicineStore {
     /**
@@ -32,6 +54,41 @@ public class MedicineStore {
      */
     private static HashMap<String, Medicine> medicines = new HashMap<String, Medicine>();
 
+    /**
+     * A static HashMap to store the last known stock level to low stock level alert line ratio of each medicine.
+     * The key is the medicine ID and the value is the ratio.
+     */
+    private static HashMap<String, Double> stockRatios = new HashMap<String, Double>();
+
+    /**
+     * A static TreeSet of medicine IDs ordered by their stock level to low stock level alert line ratios in ascending order,
+     * i.e., the medicines that need replenishment the most come first.
+     */
+    private static TreeSet<String> stockWatchlist = new TreeSet<String>(
+        Comparator.comparingDouble((String id) -> stockRatios.get(id)).thenComparing(Comparator.naturalOrder()));
+
+    /**
+     * A static HashMap to store the subscribers that watch the stock level changes of each medicine.
+     * The key is the medicine ID and the value is the subscriber registered to the medicine.
+     */
+    private static HashMap<String, ISubscriber> stockWatchers = new HashMap<String, ISubscriber>();
+
+    /**
+     * A static TreeSet of the IDs of the medicines with pending replenishment requests, in ascending medicine ID order.
+     */
+    private static TreeSet<String> replenishmentRequests = new TreeSet<String>();
+
+    /**
+     * A static PriorityQueue of the lots with expiry dates across all medicines, ordered by expiry date with the first-expiring lot first.
+     * The lots that have been used up or whose medicines have been removed are dropped lazily when they reach the head.
+     */
+    private static PriorityQueue<MedicineLot> expiryIndex = new PriorityQueue<MedicineLot>();
+
+    /**
+     * A static SubscriberRegistry to store subscribers that subscribe to low stock notifications, which are weakly referenced.
+     */
+    private static SubscriberRegistry subscribers = new SubscriberRegistry();
+
     /**
      * Loads medicine data from a CSV file specified by the given path.
      * The CSV file should specify the following fields in its first row:
@@ -63,6 +120,7 @@ public class MedicineStore {
 
                     Medicine medicine = new Medicine(id, medicineName, initialStock, lowStockLevelAlert, false, price);
                     medicines.put(id, medicine);
+                    watch(medicine);
                     nextId = Math.max(nextId, Integer.parseInt(id.substring(1)));
                 }
             }
@@ -80,6 +138,12 @@ public class MedicineStore {
         String id = "M" + String.format("%04d", ++nextId);
         medicines.put(id, record);
         record.setMedicineId(id);
+        watch(record);
+        synchronized (MedicineStore.class) {
+            if (record.getIsRequestingReplenishment()) {
+                replenishmentRequests.add(id);
+            }
+        }
         return id;
     }
 
@@ -89,7 +153,11 @@ public class MedicineStore {
      * @param id The ID of the medicine record to be removed
      */
     public static void removeRecord(String id) {
+        unwatch(id);
         medicines.remove(id);
+        synchronized (MedicineStore.class) {
+            replenishmentRequests.remove(id);
+        }
     }
 
     /**
@@ -99,7 +167,15 @@ public class MedicineStore {
      * @param record The new medicine record
      */
     public static void updateRecord(String id, Medicine record) {
+        unwatch(id);
         medicines.put(id, record);
+        watch(record);
+        synchronized (MedicineStore.class) {
+            replenishmentRequests.remove(id);
+            if (record.getIsRequestingReplenishment()) {
+                replenishmentRequests.add(id);
+            }
+        }
     }
 
     /**
@@ -120,4 +196,242 @@ public class MedicineStore {
     public static Medicine getRecord(String id) {
         return medicines.get(id);
     }
+
+    /**
+     * Retrieves a list of the medicine records at or below their low stock level alert lines,
+     * ordered by their stock level to low stock level alert line ratios in ascending order.
+     * Only the low stock medicines at the head of the watchlist are visited.
+     *
+     * @return A list of the low stock medicine records
+     */
+    public static synchronized List<Medicine> getLowStockRecords() {
+        List<Medicine> lowStockMedicines = new ArrayList<Medicine>();
+        for (String id : stockWatchlist) {
+            if (stockRatios.get(id) > 1) {
+                break;
+            }
+            lowStockMedicines.add(medicines.get(id));
+        }
+        return lowStockMedicines;
+    }
+
+    /**
+     * Checks whether the medicine with the given ID is at or below its low stock level alert line.
+     *
+     * @param id The medicine ID of the medicine to be checked
+     * @return true if the medicine is at or below its low stock level alert line, false otherwise or if no such medicine exists
+     */
+    public static synchronized boolean isLowStock(String id) {
+        Double ratio = stockRatios.get(id);
+        return ratio != null && ratio <= 1;
+    }
+
+    /**
+     * Submits a replenishment request for the medicine with the given ID and adds it to the pending replenishment request index.
+     * A medicine can request replenishment only when it is at or below its low stock level alert line and has no pending request.
+     *
+     * @param id The medicine ID of the medicine requesting replenishment
+     * @return true if the replenishment request is submitted, false otherwise
+     */
+    public static synchronized boolean addReplenishmentRequest(String id) {
+        Medicine medicine = medicines.get(id);
+        if (medicine == null || !isLowStock(id) || replenishmentRequests.contains(id)) {
+            return false;
+        }
+        medicine.setIsRequestingReplenishment(true);
+        replenishmentRequests.add(id);
+        return true;
+    }
+
+    /**
+     * Removes the pending replenishment request of the medicine with the given ID from the index.
+     *
+     * @param id The medicine ID of the medicine requesting replenishment
+     * @return The medicine record whose replenishment request is removed, or null if the medicine has no pending request
+     */
+    public static synchronized Medicine removeReplenishmentRequest(String id) {
+        if (!replenishmentRequests.remove(id)) {
+            return null;
+        }
+        Medicine medicine = medicines.get(id);
+        medicine.setIsRequestingReplenishment(false);
+        return medicine;
+    }
+
+    /**
+     * Removes all pending replenishment requests matching the given filter from the index in one batch.
+     *
+     * @param filter The filter on the medicines requesting replenishment
+     * @return A list of the medicine records whose replenishment requests are removed, in ascending medicine ID order
+     */
+    public static synchronized List<Medicine> removeReplenishmentRequests(Predicate<Medicine> filter) {
+        List<Medicine> removed = new ArrayList<Medicine>();
+        for (String id : replenishmentRequests) {
+            Medicine medicine = medicines.get(id);
+            if (filter.test(medicine)) {
+                medicine.setIsRequestingReplenishment(false);
+                removed.add(medicine);
+            }
+        }
+        for (Medicine medicine : removed) {
+            replenishmentRequests.remove(medicine.getMedicineId());
+        }
+        return removed;
+    }
+
+    /**
+     * Retrieves a list of the medicine records with pending replenishment requests.
+     *
+     * @return A list of the medicine records requesting replenishment, in ascending medicine ID order
+     */
+    public static synchronized List<Medicine> getReplenishmentRequestRecords() {
+        List<Medicine> requesting = new ArrayList<Medicine>();
+        for (String id : replenishmentRequests) {
+            requesting.add(medicines.get(id));
+        }
+        return requesting;
+    }
+
+    /**
+     * Receives a new lot of the medicine with the given ID and adds it to the expiry-ordered index if it has an expiry date.
+     *
+     * @param id The medicine ID of the medicine
+     * @param quantity The quantity of the lot
+     * @param expiryDate The expiry date of the lot, or null if the lot does not expire
+     * @return The lot received, or null if no such medicine exists
+     */
+    public static MedicineLot receiveLot(String id, int quantity, Date expiryDate) {
+        Medicine medicine = medicines.get(id);
+        if (medicine == null) {
+            return null;
+        }
+        MedicineLot lot = medicine.replenishStock(quantity, expiryDate);
+        if (expiryDate != null) {
+            synchronized (MedicineStore.class) {
+                expiryIndex.add(lot);
+            }
+        }
+        return lot;
+    }
+
+    /**
+     * Discards the lots that have expired on the given date across all medicines.
+     * Only the expired lots at the head of the expiry-ordered index are visited, and each is discarded as a whole.
+     * The lots that have already been used up or discarded by their medicine are skipped.
+     *
+     * @param date The date on which the lots are checked
+     * @return A map from each medicine with expired lots to the quantity discarded, in expiry date order
+     */
+    public static synchronized LinkedHashMap<Medicine, Integer> removeExpiredLots(Date date) {
+        LinkedHashMap<Medicine, Integer> discarded = new LinkedHashMap<Medicine, Integer>();
+        while (!expiryIndex.isEmpty() && expiryIndex.peek().isExpired(date)) {
+            MedicineLot lot = expiryIndex.poll();
+            Medicine medicine = lot.getMedicine();
+            if (medicines.get(medicine.getMedicineId()) != medicine) {
+                continue;
+            }
+            int quantity = medicine.discardLot(lot);
+            if (quantity > 0) {
+                discarded.merge(medicine, quantity, Integer::sum);
+            }
+        }
+        return discarded;
+    }
+
+    /**
+     * Calculates the stock level to low stock level alert line ratio of a medicine.
+     * A ratio not greater than 1 means the medicine is at or below its low stock level alert line.
+     *
+     * @param medicine The medicine
+     * @return The stock level to low stock level alert line ratio
+     */
+    private static double getStockRatio(Medicine medicine) {
+        if (medicine.getLowStockThreshold() <= 0) {
+            return medicine.getStock() <= 0 ? 0 : Double.POSITIVE_INFINITY;
+        }
+        return (double) medicine.getStock() / medicine.getLowStockThreshold();
+    }
+
+    /**
+     * Adds a medicine to the watchlist and subscribes to its stock level changes.
+     *
+     * @param medicine The medicine to be watched
+     */
+    private static synchronized void watch(Medicine medicine) {
+        ISubscriber watcher = notification -> refreshStockLevel(medicine);
+        stockWatchers.put(medicine.getMedicineId(), watcher);
+        medicine.subscribe(watcher);
+        stockRatios.put(medicine.getMedicineId(), getStockRatio(medicine));
+        stockWatchlist.add(medicine.getMedicineId());
+    }
+
+    /**
+     * Removes a medicine from the watchlist and unsubscribes from its stock level changes.
+     *
+     * @param id The ID of the medicine to be unwatched
+     */
+    private static synchronized void unwatch(String id) {
+        ISubscriber watcher = stockWatchers.remove(id);
+        Medicine medicine = medicines.get(id);
+        if (watcher != null && medicine != null) {
+            medicine.unsubscribe(watcher);
+        }
+        if (stockRatios.containsKey(id)) {
+            stockWatchlist.remove(id);
+            stockRatios.remove(id);
+        }
+    }
+
+    /**
+     * Repositions a medicine in the watchlist after its stock level or low stock level alert line has changed.
+     * A low stock notification will be sent to subscribers, if any, if the medicine has just fallen to or below its low stock level alert line.
+     *
+     * @param medicine The medicine whose stock level has changed
+     */
+    private static void refreshStockLevel(Medicine medicine) {
+        String id = medicine.getMedicineId();
+        boolean hasCrossed;
+        synchronized (MedicineStore.class) {
+            Double oldRatio = stockRatios.get(id);
+            if (oldRatio == null || medicines.get(id) != medicine) {
+                return;
+            }
+            double newRatio = getStockRatio(medicine);
+            stockWatchlist.remove(id);
+            stockRatios.put(id, newRatio);
+            stockWatchlist.add(id);
+            hasCrossed = oldRatio > 1 && newRatio <= 1 && !subscribers.isEmpty();
+        }
+
+        if (hasCrossed) {
+            notifySubscribers(Notification.medicineLowStock(id, medicine.getName(), medicine.getStock(), medicine.getLowStockThreshold()));
+        }
+    }
+
+    /**
+     * Registers a subscriber to low stock notifications.
+     *
+     * @param subscriber The subscriber to register
+     */
+    public static void subscribe(ISubscriber subscriber) {
+        subscribers.subscribe(subscriber);
+    }
+
+    /**
+     * Unregisters a subscriber from low stock notifications.
+     *
+     * @param subscriber The subscriber to unregister
+     */
+    public static void unsubscribe(ISubscriber subscriber) {
+        subscribers.unsubscribe(subscriber);
+    }
+
+    /**
+     * Notifies all subscribers of a medicine falling to or below its low stock level alert line.
+     *
+     * @param notification The notification to be sent to subscribers
+     */
+    public static void notifySubscribers(Notification notification) {
+        subscribers.publish(notification);
+    }
 }
@@ -0,0 +1,182 @@
+package store;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import model.Appointment;
+import model.OutboxMessage;
+import model.OutboxMessageStatus;
+
+/**
+ * The OutboxStore class is responsible for managing the storage and retrieval of OutboxMessage records,
+ * i.e., the outbound emails to patients that are waiting to be delivered by the mail relay.
+ * <p>
+ * A message is written to the outbox in the same step as the change it reports, e.g., an appointment being confirmed,
+ * so no email is lost or sent for a change that did not happen, and the sender never waits for the mail server.
+ * The PENDING messages are indexed by the time when they are next due to be sent,
+ * so that the relay claims the due messages in O(k log n) without scanning the outbox.
+ * A message is removed from the outbox once it has been sent, so the outbox only keeps the messages still to be sent and the FAILED ones.
+ * </p>
+ */
+public class OutboxStore {
+    /**
+     * A static variable to keep track of the next unique identifier for outbox messages.
+     * It is initialized to 0 and increments each time a new message is added.
+     */
+    private static int nextId = 0;
+
+    /**
+     * The formatter for the appointment dates in the messages, shared by all messages as it is thread-safe.
+     */
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    /**
+     * A static HashMap to store outbox messages.
+     * The key is the message ID and the value is the outbox message.
+     */
+    private static HashMap<String, OutboxMessage> messages = new HashMap<String, OutboxMessage>();
+
+    /**
+     * A static PriorityQueue of the PENDING messages that are not being sent, with the message that is due first at the head.
+     */
+    private static PriorityQueue<OutboxMessage> dueQueue = new PriorityQueue<OutboxMessage>(
+        Comparator.comparingLong(OutboxMessage::getNextAttemptTime).thenComparing(OutboxMessage::getMessageId));
+
+    /**
+     * Adds a new message to the outbox and generates a message ID for it.
+     * The message ID is prefixed with "OB" followed by a 6-digit number, so that it cannot be mistaken for a medicine ID.
+     *
+     * @param record The outbox message to be added
+     * @return The unique identifier assigned to the message
+     */
+    public static synchronized String addRecord(OutboxMessage record) {
+        String id = "OB" + String.format("%06d", ++nextId);
+        record.setMessageId(id);
+        messages.put(id, record);
+        dueQueue.add(record);
+        return id;
+    }
+
+    /**
+     * Adds a message to the outbox that tells the patient of an appointment about the current status of the appointment.
+     *
+     * @param appointment The appointment whose status has changed
+     * @return The unique identifier assigned to the message
+     */
+    public static String addAppointmentStatusRecord(Appointment appointment) {
+        String status = appointment.getStatus().name().toLowerCase();
+        String subject = "Your appointment " + appointment.getAppointmentId() + " has been " + status;
+        String body = "Dear " + appointment.getPatient().getName() + ",\n\n"
+            + "Your appointment " + appointment.getAppointmentId() + " with Dr. " + appointment.getDoctor().getName()
+            + " on " + formatDate(appointment.getDate()) + " has been " + status + ".";
+        return addRecord(new OutboxMessage(null, appointment.getPatient().getEmail(), subject, body));
+    }
+
+    /**
+     * Adds a message to the outbox that tells the patient of an appointment that it has been replaced by a new appointment on another date.
+     *
+     * @param appointment The appointment that has been rescheduled
+     * @param newAppointment The new appointment that replaces it
+     * @return The unique identifier assigned to the message
+     */
+    public static String addAppointmentRescheduledRecord(Appointment appointment, Appointment newAppointment) {
+        String subject = "Your appointment " + appointment.getAppointmentId() + " has been rescheduled";
+        String body = "Dear " + appointment.getPatient().getName() + ",\n\n"
+            + "Your appointment " + appointment.getAppointmentId() + " with Dr. " + appointment.getDoctor().getName()
+            + " on " + formatDate(appointment.getDate()) + " has been rescheduled to " + formatDate(newAppointment.getDate())
+            + " as appointment " + newAppointment.getAppointmentId() + ", which is pending the doctor's confirmation.";
+        return addRecord(new OutboxMessage(null, appointment.getPatient().getEmail(), subject, body));
+    }
+
+    /**
+     * Formats an appointment date for a message.
+     *
+     * @param date The date to be formatted
+     * @return The date in the dd/MM/yyyy format
+     */
+    private static String formatDate(Date date) {
+        return DATE_FORMATTER.format(LocalDate.ofInstant(date.toInstant(), ZoneId.systemDefault()));
+    }
+
+    /**
+     * Retrieves an outbox message from the store based on the given ID.
+     *
+     * @param id The ID of the message to be retrieved
+     * @return The outbox message, or null if not found
+     */
+    public static synchronized OutboxMessage getRecord(String id) {
+        return messages.get(id);
+    }
+
+    /**
+     * Retrieves all outbox messages with the specified delivery status.
+     * The messages are removed once sent, so none is retrieved for SENT.
+     *
+     * @param status The delivery status
+     * @return A list of the outbox messages with the delivery status
+     */
+    public static synchronized List<OutboxMessage> getRecords(OutboxMessageStatus status) {
+        List<OutboxMessage> records = new ArrayList<OutboxMessage>();
+        for (OutboxMessage message : messages.values()) {
+            if (message.getStatus() == status) {
+                records.add(message);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Claims the PENDING messages that are due to be sent at the specified time, the earliest due first.
+     * The claimed messages are not claimed again until they are rescheduled.
+     *
+     * @param maxCount The maximum number of messages to be claimed
+     * @param now The current time in milliseconds since the epoch
+     * @return The list of claimed messages, which is empty if no message is due
+     */
+    public static synchronized List<OutboxMessage> claimDueRecords(int maxCount, long now) {
+        List<OutboxMessage> records = new ArrayList<OutboxMessage>();
+        while (records.size() < maxCount && !dueQueue.isEmpty() && dueQueue.peek().getNextAttemptTime() <= now) {
+            records.add(dueQueue.poll());
+        }
+        return records;
+    }
+
+    /**
+     * Marks a claimed message as SENT and removes it from the outbox.
+     *
+     * @param record The claimed message
+     */
+    public static synchronized void markSent(OutboxMessage record) {
+        record.setStatus(OutboxMessageStatus.SENT);
+        messages.remove(record.getMessageId());
+    }
+
+    /**
+     * Records a failed delivery attempt of a claimed message and puts it back to be sent again at the specified time.
+     *
+     * @param record The claimed message
+     * @param nextAttemptTime The time when the message is next due to be sent in milliseconds since the epoch
+     */
+    public static synchronized void rescheduleRecord(OutboxMessage record, long nextAttemptTime) {
+        record.setAttempts(record.getAttempts() + 1);
+        record.setNextAttemptTime(nextAttemptTime);
+        dueQueue.add(record);
+    }
+
+    /**
+     * Records a failed delivery attempt of a claimed message and marks it as FAILED, so it is not sent again.
+     *
+     * @param record The claimed message
+     */
+    public static synchronized void markFailed(OutboxMessage record) {
+        record.setAttempts(record.getAttempts() + 1);
+        record.setStatus(OutboxMessageStatus.FAILED);
+    }
+}
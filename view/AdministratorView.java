@@ -1,8 +1,12 @@
 package view;
 
+import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 import controller.AdministratorController;
@@ -11,50 +15,73 @@ import model.AppointmentOutcomeRecord;
 import model.AppointmentStatus;
 import model.Doctor;
 import model.Medicine;
+import model.MedicineLot;
 import model.Prescription;
+import model.RatingStatistics;
+import model.ReplenishmentForecast;
 import model.User;
 import model.UserRole;
+import observer.AsyncSubscriber;
+import observer.ISubscriber;
 import observer.Notification;
+import observer.NotificationInbox;
+import observer.OverflowPolicy;
 import store.AppointmentStore;
+import store.MedicineStore;
 
 /**
  * The AdministratorView class extends the DashboardView and provides the user interface for the administrator.
  * It allows the administrator to manage hospital staff, view and manage medication inventory, approve replenishment requests,
  * view appointment details, and handle notifications.
  */
-public class AdministratorView extends DashboardView {
+public class AdministratorView extends DashboardView implements ISubscriber {
     /**
      * The user associated with this AdministratorView.
      */
     private User user;
 
     /**
-     * The list of notifications received by the administrator.
+     * The inbox of notifications received by the administrator.
      */
-    private List<Notification> notifications;
+    private NotificationInbox notifications;
+
+    /**
+     * The asynchronous subscriber that delivers notifications to this view off the publishers' threads.
+     * The view subscribes to publishers through it, so that a slow view never delays the publishers.
+     */
+    private AsyncSubscriber asyncSubscriber = new AsyncSubscriber(this, NOTIFICATION_QUEUE_CAPACITY, OverflowPolicy.COALESCE);
 
     /**
      * Constructor for the AdministratorView class.
-     * Initializes the notifications list and subscribes to the AppointmentStore.
+     * Initializes the notification inbox and subscribes to the AppointmentStore and the MedicineStore.
      *
      * @param user The user associated with this AdministratorView.
      */
     public AdministratorView(User user) {
         this.user = user;
-        this.notifications = new ArrayList<Notification>();
-        AppointmentStore.subscribe(this);
+        this.notifications = new NotificationInbox(NOTIFICATION_INBOX_CAPACITY);
+        AppointmentStore.subscribe(asyncSubscriber);
+        MedicineStore.subscribe(asyncSubscriber);
     }
 
     /**
      * Implements the ISubscriber interface.
-     * Updates the list of notifications when receiving a new notification from subscribed publishers.
+     * Adds a new notification from subscribed publishers to the inbox of notifications.
      *
-     * @param notification The new notification to be added to the list.
+     * @param notification The new notification to be added to the inbox.
      */
     public void update(Notification notification) {
         notifications.add(notification);
     }
 
+    /**
+     * Unsubscribes from the AppointmentStore and the MedicineStore.
+     */
+    public void dispose() {
+        AppointmentStore.unsubscribe(asyncSubscriber);
+        MedicineStore.unsubscribe(asyncSubscriber);
+    }
+
     /**
      * Displays a menu with a set of actions that the administrator can choose from, including:
      * <ul>
@@ -65,6 +92,9 @@ public class AdministratorView extends DashboardView {
      *   <li>View medication inventory</li>
      *   <li>Manage medication inventory</li>
      *   <li>Approve replenishment request</li>
+     *   <li>View replenishment forecast</li>
+     *   <li>View doctor rating statistics</li>
+     *   <li>Export bills</li>
      *   <li>Change password</li>
      *   <li>Logout</li>
      * </ul>
@@ -77,8 +107,8 @@ public class AdministratorView extends DashboardView {
             System.out.println("|                                        ADMINISTRATOR DASHBOARD                                     |");
             System.out.println("======================================================================================================");
             System.out.println("Welcome, " + user.getName());
-            if (notifications.size() > 0) {
-                System.out.println("You have " + notifications.size() + " new notifications.");
+            if (notifications.getUnreadCount() > 0) {
+                System.out.println("You have " + notifications.getUnreadCount() + " new notifications.");
             }
             System.out.println("What would you like to do?");
             System.out.println("1. Show notifications");
@@ -88,18 +118,16 @@ public class AdministratorView extends DashboardView {
             System.out.println("5. View medication inventory");
             System.out.println("6. Manage medication inventory");
             System.out.println("7. Approve replenishment request");
-            System.out.println("8. Change password");
-            System.out.println("9. Logout");
+            System.out.println("8. View replenishment forecast");
+            System.out.println("9. View doctor rating statistics");
+            System.out.println("10. Export bills");
+            System.out.println("11. Change password");
+            System.out.println("12. Logout");
 
-            int choice = getChoice(1, 9);
+            int choice = getChoice(1, 12);
             switch (choice) {
                 case 1:
-                    List<String> notificationStrings = new ArrayList<String>();
-                    for (Notification notification : notifications) {
-                        notificationStrings.add(notification.toString());
-                    }
-                    showNotifications(notificationStrings);
-                    notifications.clear();
+                    showNotificationInbox(notifications);
                     break;
                 case 2:
                     showHospitalStaff();
@@ -120,9 +148,18 @@ public class AdministratorView extends DashboardView {
                     showApproveReplenishmentRequestForm();
                     break;
                 case 8:
-                    showChangePasswordForm(user);
+                    showReplenishmentForecast();
                     break;
                 case 9:
+                    showDoctorRatingStatistics();
+                    break;
+                case 10:
+                    showExportBillsForm();
+                    break;
+                case 11:
+                    showChangePasswordForm(user);
+                    break;
+                case 12:
                     user.logout();
                     return;
             }
@@ -515,9 +552,8 @@ public class AdministratorView extends DashboardView {
         if (specialty.isEmpty()) {
             specialty = ((Doctor) user).getSpecialty();
         }
-        User updatedUser = new Doctor(userId, null, user.getRole(), name, isMale, age, email, specialty, ((Doctor) user).getRatingCount(), ((Doctor) user).getRating());
         try {
-            AdministratorController.updateStaff(userId, updatedUser);
+            AdministratorController.updateDoctor(userId, name, isMale, age, email, specialty);
         } catch (Exception e) {
             showError(e.getMessage());
             return;
@@ -580,7 +616,7 @@ public class AdministratorView extends DashboardView {
                     System.out.println("    (Empty)");
                 }
                 for (Prescription prescription : prescriptions) {
-                    System.out.println("   - " + prescription.getMedicine().getName() + " (" + prescription.getStatus() + ")");
+                    System.out.println("   - " + prescription + " (" + prescription.getStatus() + ")");
                 }
                 System.out.println("Consultation Notes: " + outcomeRecord.getNotes());
             }
@@ -591,7 +627,7 @@ public class AdministratorView extends DashboardView {
     /**
      * Displays the medication inventory details, including the medication ID, name,
      * stock level, low stock level alert line, whether replenishment is being requested,
-     * and the price of each medication.
+     * and the price of each medication, followed by the medications that need replenishment.
      */
     public void showMedicationInventory() {
         List<Medicine> medicines = AdministratorController.getMedicineInventory();
@@ -604,23 +640,41 @@ public class AdministratorView extends DashboardView {
             return;
         }
 
+        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
         showSuccess();
         System.out.println("The following medications were found:");
         for (Medicine medicine : medicines) {
             System.out.println("Medication ID: " + medicine.getMedicineId());
             System.out.println("Name: " + medicine.getName());
             System.out.println("Stock level: " + medicine.getStock());
+            System.out.println("Lots:");
+            for (MedicineLot lot : medicine.getLots()) {
+                System.out.println("   - " + lot.getQuantity() + " expiring on "
+                    + (lot.getExpiryDate() == null ? "(None)" : sdf.format(lot.getExpiryDate())));
+            }
             System.out.println("Low stock level alert line: " + medicine.getLowStockThreshold());
             System.out.println("Requesting replenishment: " + medicine.getIsRequestingReplenishment());
             System.out.println("Price: $" + medicine.getPrice());
             System.out.println();
         }
+
+        List<Medicine> lowStockMedicines = AdministratorController.getLowStockMedicines();
+        System.out.println("Medications at or below the low stock level alert line:");
+        if (lowStockMedicines.isEmpty()) {
+            System.out.println("    (None)");
+        }
+        for (Medicine medicine : lowStockMedicines) {
+            System.out.println("   - " + medicine.getName() + " (" + medicine.getMedicineId() + "): " + medicine.getStock() + " / " + medicine.getLowStockThreshold());
+        }
+        System.out.println();
     }
 
     /**
      * Displays the form for managing the medication inventory.
      * The administrator can choose to add a new medication, remove an existing medication,
-     * update the stock level or the low stock level alert line of a medication.
+     * update the stock level or the low stock level alert line of a medication,
+     * receive a new lot of a medication with an expiry date, discard the expired lots,
+     * or look up the stock level of a medication at the end of a past date.
      */
     public void showManageMedicationInventoryForm() {
         System.out.println("What would you like to do?");
@@ -628,9 +682,12 @@ public class AdministratorView extends DashboardView {
         System.out.println("2. Remove a medication");
         System.out.println("3. Update stock level of a medication");
         System.out.println("4. Update low stock level alert line of a medication");
-        System.out.println("5. Quit");
+        System.out.println("5. Receive a new lot of a medication");
+        System.out.println("6. Discard expired lots");
+        System.out.println("7. View stock level of a medication on a date");
+        System.out.println("8. Quit");
 
-        int choice = getChoice(1, 5);
+        int choice = getChoice(1, 8);
 
         Scanner sc = new Scanner(System.in);
         String medicineId;
@@ -691,25 +748,247 @@ public class AdministratorView extends DashboardView {
                 }
                 showSuccess("Low stock level alert line updated successfully.");
                 break;
+            case 5:
+                System.out.print("Please enter the medication ID: ");
+                medicineId = sc.nextLine();
+                System.out.print("Please enter the quantity of the lot: ");
+                int quantity = sc.nextInt();
+                sc.nextLine();
+                System.out.print("Please enter the expiry date of the lot (dd/MM/yyyy): ");
+                SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
+                try {
+                    Date expiryDate = sdf.parse(sc.nextLine());
+                    AdministratorController.receiveMedicineLot(medicineId, quantity, expiryDate);
+                } catch (ParseException e) {
+                    showError("Invalid date format.");
+                    return;
+                } catch (Exception e) {
+                    showError(e.getMessage());
+                    return;
+                }
+                showSuccess("Lot received successfully.");
+                break;
+            case 6:
+                Map<Medicine, Integer> discarded = AdministratorController.removeExpiredMedicineLots();
+                if (discarded.isEmpty()) {
+                    showSuccess("No expired lots found.");
+                    return;
+                }
+                showSuccess("The following expired quantities were discarded:");
+                for (Map.Entry<Medicine, Integer> entry : discarded.entrySet()) {
+                    System.out.println("   - " + entry.getKey().getName() + " (" + entry.getKey().getMedicineId() + "): " + entry.getValue());
+                }
+                break;
+            case 7:
+                System.out.print("Please enter the medication ID: ");
+                medicineId = sc.nextLine();
+                System.out.print("Please enter the date (dd/MM/yyyy): ");
+                SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
+                int stockLevelOnDate;
+                String date = sc.nextLine();
+                try {
+                    Calendar endOfDay = Calendar.getInstance();
+                    endOfDay.setTime(dateFormat.parse(date));
+                    endOfDay.add(Calendar.DATE, 1);
+                    endOfDay.add(Calendar.MILLISECOND, -1);
+                    stockLevelOnDate = AdministratorController.getMedicineStockLevelAt(medicineId, endOfDay.getTime());
+                } catch (ParseException e) {
+                    showError("Invalid date format.");
+                    return;
+                } catch (Exception e) {
+                    showError(e.getMessage());
+                    return;
+                }
+                showSuccess("Stock level of " + medicineId + " at the end of " + date + ": " + stockLevelOnDate);
+                break;
             default:
                 return;
         }
     }
 
     /**
-     * Displays the form to approve a replenishment request for a medication by the medication ID.
+     * Displays the form to approve replenishment requests.
+     * The pending replenishment requests are listed first, then the administrator can choose to approve a request by the medication ID,
+     * approve all pending requests, or approve the pending requests of the medications whose names contain a keyword.
      */
     public void showApproveReplenishmentRequestForm() {
+        List<Medicine> requests = AdministratorController.getReplenishmentRequests();
+        if (requests.isEmpty()) {
+            System.out.println("No pending replenishment requests.");
+            return;
+        }
+
+        System.out.println("Pending replenishment requests:");
+        for (Medicine medicine : requests) {
+            System.out.println("   - " + medicine.getName() + " (" + medicine.getMedicineId() + "): " + medicine.getStock() + " / " + medicine.getLowStockThreshold());
+        }
+        System.out.println("What would you like to do?");
+        System.out.println("1. Approve a request by medication ID");
+        System.out.println("2. Approve all pending requests");
+        System.out.println("3. Approve requests by medication name");
+        System.out.println("4. Quit");
+
+        int choice = getChoice(1, 4);
+        Scanner sc = new Scanner(System.in);
+        Map<Medicine, Integer> approved;
+        switch (choice) {
+            case 1:
+                System.out.print("Please enter the medication ID: ");
+                String medicineId = sc.nextLine();
+                int quantity;
+                try {
+                    quantity = AdministratorController.approveReplenishmentRequest(medicineId);
+                } catch (Exception e) {
+                    showError(e.getMessage());
+                    return;
+                }
+                if (quantity == 0) {
+                    showSuccess("Replenishment request closed. The stock level already covers the forecast, so nothing was ordered.");
+                    return;
+                }
+                showSuccess("Replenishment request approved successfully. " + quantity + " units were ordered.");
+                return;
+            case 2:
+                approved = AdministratorController.approveReplenishmentRequests(medicine -> true);
+                break;
+            case 3:
+                System.out.print("Please enter the medication name: ");
+                String name = sc.nextLine().toLowerCase();
+                approved = AdministratorController.approveReplenishmentRequests(medicine -> medicine.getName().toLowerCase().contains(name));
+                break;
+            default:
+                return;
+        }
+
+        if (approved.isEmpty()) {
+            showError("No matching replenishment requests.");
+            return;
+        }
+        showSuccess(approved.size() + " replenishment requests approved successfully.");
+        for (Map.Entry<Medicine, Integer> entry : approved.entrySet()) {
+            Medicine medicine = entry.getKey();
+            String ordered = entry.getValue() == 0 ? "nothing ordered, stock level already covers the forecast" : entry.getValue() + " units ordered";
+            System.out.println("   - " + medicine.getName() + " (" + medicine.getMedicineId() + "): " + medicine.getStock() + " (" + ordered + ")");
+        }
+    }
+
+    /**
+     * Displays the replenishment forecast of all medications, including the estimated daily consumption rate,
+     * the estimated number of days until stockout, and the suggested reorder quantity of each medication.
+     */
+    public void showReplenishmentForecast() {
+        List<ReplenishmentForecast> forecasts = AdministratorController.getReplenishmentForecasts();
+
+        if (forecasts.isEmpty()) {
+            System.out.println("No medications found.");
+            List<String> tips = new ArrayList<String>();
+            tips.add("Try adding a new medication first.");
+            showUserTips(tips);
+            return;
+        }
+
+        showSuccess();
+        System.out.println("The replenishment forecast of the medications:");
+        for (ReplenishmentForecast forecast : forecasts) {
+            Medicine medicine = forecast.getMedicine();
+            System.out.println("Medication ID: " + medicine.getMedicineId());
+            System.out.println("Name: " + medicine.getName());
+            System.out.println("Stock level: " + medicine.getStock());
+            System.out.println("Daily consumption rate: " + String.format("%.2f", forecast.getDailyConsumptionRate()));
+            if (Double.isInfinite(forecast.getDaysUntilStockout())) {
+                System.out.println("Days until stockout: N/A");
+            } else {
+                System.out.println("Days until stockout: " + String.format("%.1f", forecast.getDaysUntilStockout()));
+            }
+            System.out.println("Suggested reorder quantity: " + forecast.getSuggestedQuantity());
+            System.out.println();
+        }
+    }
+
+    /**
+     * Displays a menu for viewing the rating statistics of doctors.
+     * The administrator can choose to view the rating distribution of all doctors,
+     * or to find the doctors whose average rating over the last 30 days has dropped below a threshold.
+     */
+    public void showDoctorRatingStatistics() {
+        System.out.println("What would you like to view?");
+        System.out.println("1. Rating distribution of all doctors");
+        System.out.println("2. Doctors with low recent ratings");
+        System.out.println("3. Quit");
+
+        int choice = getChoice(1, 3);
+        List<Doctor> doctors;
+        switch (choice) {
+            case 1:
+                doctors = AdministratorController.getDoctors();
+                break;
+            case 2:
+                Scanner sc = new Scanner(System.in);
+                System.out.print("Please enter the average rating threshold: ");
+                float threshold = sc.nextFloat();
+                doctors = AdministratorController.searchDoctorsWithRecentRatingBelow(threshold);
+                break;
+            default:
+                return;
+        }
+
+        if (doctors.isEmpty()) {
+            System.out.println("No doctors found.");
+            List<String> tips = new ArrayList<String>();
+            tips.add("Try adding a new doctor first.");
+            tips.add("Try viewing the rating distribution of all doctors.");
+            showUserTips(tips);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        showSuccess();
+        System.out.println("The following doctors were found:");
+        for (Doctor doctor : doctors) {
+            RatingStatistics statistics = doctor.getRatingStatistics();
+            System.out.println("Doctor ID: " + doctor.getUserId());
+            System.out.println("Name: " + doctor.getName());
+            System.out.println("Average rating: " + String.format("%.2f", doctor.getRating()) + " (" + doctor.getRatingCount() + ")");
+            System.out.println("Rating distribution: ");
+            for (int score = RatingStatistics.MAX_SCORE; score >= RatingStatistics.MIN_SCORE; score--) {
+                System.out.println("   " + score + " star: " + statistics.getScoreCount(score));
+            }
+            System.out.println("Median rating: " + statistics.getPercentile(50));
+            System.out.println("10th percentile rating: " + statistics.getPercentile(10));
+            System.out.println("Last " + RatingStatistics.WINDOW_DAYS + " days average rating: " + String.format("%.2f", statistics.getRecentAverage(now)) + " (" + statistics.getRecentCount(now) + ")");
+            System.out.println();
+        }
+    }
+
+    /**
+     * Displays a form to export the bills of all completed appointments within a date range to a file.
+     * The number of exported bills and the export throughput are displayed upon completion.
+     */
+    public void showExportBillsForm() {
         Scanner sc = new Scanner(System.in);
-        System.out.print("Please enter the medication ID: ");
-        String medicineId = sc.nextLine();
+        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
+        Date from, to;
+        try {
+            System.out.print("Please enter the start date (dd/MM/yyyy): ");
+            from = sdf.parse(sc.nextLine());
+            System.out.print("Please enter the end date (dd/MM/yyyy): ");
+            to = sdf.parse(sc.nextLine());
+        } catch (ParseException e) {
+            showError(e.getMessage());
+            return;
+        }
+        System.out.print("Please enter the export file path: ");
+        String path = sc.nextLine();
 
+        long startTime = System.nanoTime();
+        int count;
         try {
-            AdministratorController.approveReplenishmentRequest(medicineId);
+            count = AdministratorController.exportBills(from, to, path);
         } catch (Exception e) {
             showError(e.getMessage());
             return;
         }
-        showSuccess("Replenishment request approved successfully.");
+        double seconds = Math.max(System.nanoTime() - startTime, 1) / 1e9;
+        showSuccess(count + " bills exported to " + path + " in " + String.format("%.3f", seconds) + "s (" + String.format("%.0f", count / seconds) + " records/s).");
     }
-}
\ No newline at end of file
+}
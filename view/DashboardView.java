@@ -1,18 +1,37 @@
 package view;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
 
 import model.User;
-import observer.ISubscriber;
+import observer.Notification;
+import observer.NotificationInbox;
+import store.InboxStore;
 
 /**
  * The DashboardView class provides common methods for dashboard views, including
  * getting validated user choices, displaying notifications, tips, success and error messages,
  * and a form for changing user password.
  */
-public abstract class DashboardView implements IView, ISubscriber{
+public abstract class DashboardView implements IView{
+    /**
+     * The maximum number of notifications waiting to be delivered to a dashboard view.
+     */
+    public static final int NOTIFICATION_QUEUE_CAPACITY = 256;
+
+    /**
+     * The maximum number of notifications kept in the inbox of a dashboard view.
+     */
+    public static final int NOTIFICATION_INBOX_CAPACITY = 100;
+
+    /**
+     * The number of notifications displayed per page.
+     */
+    public static final int NOTIFICATION_PAGE_SIZE = 10;
+
     /**
      * Prompts the user to enter a choice within a specified range and returns the validated choice.
      * Repeatedly prompts the user until a valid choice is entered.
@@ -42,6 +61,14 @@ public abstract class DashboardView implements IView, ISubscriber{
         return choice;
     }
 
+    /**
+     * Releases the resources of this dashboard view when it is evicted from the view cache,
+     * i.e., unsubscribes it from all publishers it has subscribed to.
+     * It does nothing for the dashboard views that do not subscribe to any publisher.
+     */
+    public void dispose() {
+    }
+
     /**
      * Displays a list of notifications.
      *
@@ -58,6 +85,78 @@ public abstract class DashboardView implements IView, ISubscriber{
         System.out.println("------------------------------------------------------------------------------------------------------");
     }
 
+    /**
+     * Displays the notifications in an inbox page by page, from the newest to the oldest, and marks them as read.
+     * After each page, the user can choose to display the next page or go back.
+     *
+     * @param inbox The inbox of notifications to be displayed
+     */
+    public void showNotificationInbox(NotificationInbox inbox){
+        int page = 0;
+        while(true){
+            List<Notification> notificationPage = inbox.read(page, NOTIFICATION_PAGE_SIZE);
+            if(notificationPage.isEmpty()){
+                if(page == 0){
+                    System.out.println("You have no notifications.");
+                }
+                return;
+            }
+            List<String> notificationStrings = new ArrayList<String>();
+            for(Notification notification : notificationPage){
+                notificationStrings.add(notification.toString());
+            }
+            showNotifications(notificationStrings);
+            if(inbox.getCount() <= (page + 1) * NOTIFICATION_PAGE_SIZE){
+                return;
+            }
+            System.out.println("1. Next page");
+            System.out.println("2. Back");
+            if(getChoice(1, 2) == 2){
+                return;
+            }
+            page++;
+        }
+    }
+
+    /**
+     * Displays the unread notifications in the persistent inbox of a user page by page, from the oldest to the newest,
+     * and marks them as read. After each page, the user can choose to display the next page or go back.
+     *
+     * @param userId The ID of the user whose inbox is to be displayed
+     */
+    public void showPersistentInbox(String userId){
+        boolean isFirstPage = true;
+        while(true){
+            List<Notification> notificationPage;
+            try{
+                notificationPage = InboxStore.readUnread(userId, NOTIFICATION_PAGE_SIZE);
+            }catch (IOException e){
+                showError(e.getMessage());
+                return;
+            }
+            if(notificationPage.isEmpty()){
+                if(isFirstPage){
+                    System.out.println("You have no new notifications.");
+                }
+                return;
+            }
+            List<String> notificationStrings = new ArrayList<String>();
+            for(Notification notification : notificationPage){
+                notificationStrings.add(notification.toString());
+            }
+            showNotifications(notificationStrings);
+            if(InboxStore.getUnreadCount(userId) == 0){
+                return;
+            }
+            System.out.println("1. Next page");
+            System.out.println("2. Back");
+            if(getChoice(1, 2) == 2){
+                return;
+            }
+            isFirstPage = false;
+        }
+    }
+
     /**
      * Displays a list of tips.
      *
@@ -1,6 +1,7 @@
 package view;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import model.User;
 import model.Doctor;
@@ -9,12 +10,30 @@ import model.Patient;
 /**
  * Factory class for creating and managing dashboard views for different users upon successful login.
  * This class maintains a mapping between users and their associated dashboard views.
+ * <p>
+ * The cache is bounded and evicts the least recently used view when it is full.
+ * An evicted view is disposed, i.e., unsubscribed from all publishers, so that it can be garbage collected.
+ * </p>
  */
 public class DashboardViewFactory {
     /**
-     * Caches the mapping between a User and their associated dashboard views.
+     * The maximum number of dashboard views kept in the cache.
      */
-    private static HashMap<User, DashboardView> dashboardViews = new HashMap<User, DashboardView>();
+    public static final int MAX_CACHED_VIEWS = 64;
+
+    /**
+     * Caches the mapping between a User and their associated dashboard views, in least recently used order.
+     */
+    private static LinkedHashMap<User, DashboardView> dashboardViews = new LinkedHashMap<User, DashboardView>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<User, DashboardView> eldest) {
+            if (size() <= MAX_CACHED_VIEWS) {
+                return false;
+            }
+            eldest.getValue().dispose();
+            return true;
+        }
+    };
 
     /**
      * Returns the dashboard view for the given user based on their role.
@@ -23,8 +42,9 @@ public class DashboardViewFactory {
      * @return the dashboard view associated with the user
      */
     public static DashboardView getDashboardView(User user) {
-        if (dashboardViews.containsKey(user)) {
-            return dashboardViews.get(user);
+        DashboardView cachedView = dashboardViews.get(user);
+        if (cachedView != null) {
+            return cachedView;
         }
 
         DashboardView dashboardView = null;
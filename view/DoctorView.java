@@ -15,8 +15,7 @@ import model.Medicine;
 import model.Patient;
 import model.Prescription;
 import model.PrescriptionStatus;
-import observer.Notification;
-import store.AppointmentStore;
+import store.InboxStore;
 
 /**
  * The DoctorView class provides the user interface for doctors.
@@ -31,31 +30,13 @@ public class DoctorView extends DashboardView {
      */
     private Doctor user;
 
-    /**
-     * The list of notifications received by the doctor.
-     */
-    private List<Notification> notifications;
-
     /**
      * Constructor for the DoctorView class.
-     * Initializes the notifications list and subscribes to the AppointmentStore.
      *
      * @param user The user associated with this DoctorView.
      */
     public DoctorView(Doctor user) {
         this.user = user;
-        this.notifications = new ArrayList<Notification>();
-        AppointmentStore.subscribe(this);
-    }
-
-    /**
-     * Implements the ISubscriber interface.
-     * Updates the list of notifications when receiving a new notification from subscribed publishers.
-     *
-     * @param notification The new notification to be added to the list.
-     */
-    public void update(Notification notification) {
-        notifications.add(notification);
     }
 
     /**
@@ -82,8 +63,9 @@ public class DoctorView extends DashboardView {
             System.out.println("|                                               DOCTOR DASHBOARD                                     |");
             System.out.println("======================================================================================================");
             System.out.println("Welcome, Dr. " + user.getName());
-            if (notifications.size() > 0) {
-                System.out.println("You have " + notifications.size() + " new notifications.");
+            int unreadCount = InboxStore.getUnreadCount(user.getUserId());
+            if (unreadCount > 0) {
+                System.out.println("You have " + unreadCount + " new notifications.");
             }
             System.out.println("What would you like to do?");
             System.out.println("1. Show notifications");
@@ -102,12 +84,7 @@ public class DoctorView extends DashboardView {
             int choice = getChoice(1, 11);
             switch (choice) {
                 case 1:
-                    List<String> notificationStrings = new ArrayList<String>();
-                    for (Notification notification : notifications) {
-                        notificationStrings.add(notification.toString());
-                    }
-                    showNotifications(notificationStrings);
-                    notifications.clear();
+                    showPersistentInbox(user.getUserId());
                     break;
                 case 2:
                     showPatientMedicalRecords();
@@ -349,7 +326,7 @@ public class DoctorView extends DashboardView {
 
     /**
      * Displays a form to record the outcome of an appointment,
-     * including the type of service provided, prescribed medicines, and consultation notes.
+     * including the type of service provided, prescribed medicines with their quantities, dosages and durations, and consultation notes.
      */
     public void showRecordAppointmentOutcomeForm() {
         Scanner sc = new Scanner(System.in);
@@ -369,7 +346,22 @@ public class DoctorView extends DashboardView {
                 showError("Medicine not found.");
                 continue;
             }
-            prescriptions.add(new Prescription(medicine, PrescriptionStatus.PENDING));
+            int quantity, durationInDays;
+            try {
+                System.out.println("Please enter the quantity:");
+                quantity = Integer.parseInt(sc.nextLine());
+                System.out.println("Please enter the dosage instructions (e.g. 1 tablet three times daily):");
+                String dosage = sc.nextLine();
+                System.out.println("Please enter the duration of the medication in days:");
+                durationInDays = Integer.parseInt(sc.nextLine());
+                if (quantity < 1 || durationInDays < 1) {
+                    showError("Quantity and duration should be positive.");
+                    continue;
+                }
+                prescriptions.add(new Prescription(medicine, quantity, dosage, durationInDays, PrescriptionStatus.PENDING));
+            } catch (NumberFormatException e) {
+                showError("Invalid number: " + e.getMessage());
+            }
         }
         System.out.println("Please enter the consultation notes (if any):");
         String notes = sc.nextLine();
@@ -14,7 +14,7 @@ import model.AppointmentStatus;
 import model.Doctor;
 import model.Patient;
 import model.Prescription;
-import observer.Notification;
+import store.InboxStore;
 
 /**
  * The PatientView class provides the user interface for patients.
@@ -30,30 +30,13 @@ public class PatientView extends DashboardView {
      */
     private Patient user;
 
-    /**
-     * The list of notifications received by the patient.
-     */
-    private List<Notification> notifications;
-
     /**
      * Constructor for the PatientView class.
-     * Initializes the notifications list
      *
      * @param user The user associated with this PatientView.
      */
     public PatientView(Patient user) {
         this.user = user;
-        this.notifications = new ArrayList<Notification>();
-    }
-
-    /**
-     * Implements the ISubscriber interface.
-     * Updates the list of notifications when receiving a new notification from subscribed publishers.
-     *
-     * @param notification The new notification to be added to the list.
-     */
-    public void update(Notification notification) {
-        notifications.add(notification);
     }
 
     /**
@@ -82,8 +65,9 @@ public class PatientView extends DashboardView {
             System.out.println("|                                              PATIENT DASHBOARD                                     |");
             System.out.println("======================================================================================================");
             System.out.println("Welcome, " + user.getName());
-            if (notifications.size() > 0) {
-                System.out.println("You have " + notifications.size() + " new notifications.");
+            int unreadCount = InboxStore.getUnreadCount(user.getUserId());
+            if (unreadCount > 0) {
+                System.out.println("You have " + unreadCount + " new notifications.");
             }
             System.out.println("What would you like to do?");
             System.out.println("1. Show notifications");
@@ -104,16 +88,7 @@ public class PatientView extends DashboardView {
             int choice = getChoice(1, 13);
             switch (choice) {
                 case 1:
-                    List<String> notificationStrings = new ArrayList<String>();
-                    for (Notification notification : notifications) {
-                        if (notification.getObjectName() != null && notification.getObjectName().equals("Patient") && notification.getObjectId().equals(user.getUserId())) {
-                            notificationStrings.add(notification.toString());
-                        } else {
-                            notificationStrings.add(notification.toString());
-                        }
-                    }
-                    showNotifications(notificationStrings);
-                    notifications.clear();
+                    showPersistentInbox(user.getUserId());
                     break;
                 case 2:
                     showMedicalRecord();
@@ -306,8 +281,7 @@ public class PatientView extends DashboardView {
         SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
         try {
             Date date = sdf.parse(dateString);
-            Appointment appointment = PatientController.scheduleAppointment(user.getUserId(), doctorId, date);
-            appointment.subscribe(this);
+            PatientController.scheduleAppointment(user.getUserId(), doctorId, date);
             showSuccess("Appointment scheduled successfully.");
         } catch (Exception e) {
             showError(e.getMessage());
@@ -327,8 +301,7 @@ public class PatientView extends DashboardView {
         SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
         try {
             Date date = sdf.parse(dateString);
-            Appointment appointment = PatientController.rescheduleAppointment(user.getUserId(), appointmentId, date);
-            appointment.subscribe(this);
+            PatientController.rescheduleAppointment(user.getUserId(), appointmentId, date);
             showSuccess("Appointment rescheduled successfully.");
         } catch (Exception e) {
             showError(e.getMessage());
@@ -434,7 +407,7 @@ public class PatientView extends DashboardView {
                 System.out.println("    (None)");
             }
             for (Prescription prescription : prescriptions) {
-                System.out.println("   - " + prescription.getMedicine().getName() + " (" + prescription.getStatus() + ")");
+                System.out.println("   - " + prescription + " (" + prescription.getStatus() + ")");
             }
             System.out.println("Consultation notes: " + outcomeRecord.getNotes());
             System.out.println();
@@ -2,15 +2,22 @@ package view;
 
 import java.util.Scanner;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import model.AppointmentOutcomeRecord;
+import model.DispenseResult;
 import model.Medicine;
+import model.PickListItem;
 import model.Prescription;
 import model.User;
+import observer.AsyncSubscriber;
+import observer.ISubscriber;
 import observer.Notification;
+import observer.NotificationInbox;
+import observer.OverflowPolicy;
 import store.AppointmentOutcomeRecordStore;
+import store.MedicineStore;
 import controller.PharmacistController;
 
 /**
@@ -20,45 +27,62 @@ import controller.PharmacistController;
  * view medication inventory, submit replenishment requests, and change password.
  * </p>
  */
-public class PharmacistView extends DashboardView{
+public class PharmacistView extends DashboardView implements ISubscriber{
     /**
      * The user associated with this PharmacistView.
      */
     private User user;
 
     /**
-     * The list of notifications received by the pharmacist.
+     * The inbox of notifications received by the pharmacist.
      */
-    private List<Notification> notifications;
+    private NotificationInbox notifications;
+
+    /**
+     * The asynchronous subscriber that delivers notifications to this view off the publishers' threads.
+     * The view subscribes to publishers through it, so that a slow view never delays the publishers.
+     */
+    private AsyncSubscriber asyncSubscriber = new AsyncSubscriber(this, NOTIFICATION_QUEUE_CAPACITY, OverflowPolicy.COALESCE);
 
     /**
      * Constructor for the PharmacistView class.
-     * Initializes the notifications list and subscribes to the AppointmentOutcomeRecordStore.
+     * Initializes the notification inbox and subscribes to the AppointmentOutcomeRecordStore and the MedicineStore.
      *
      * @param user The user associated with this PharmacistView.
      */
     public PharmacistView(User user){
         this.user = user;
-        this.notifications = new ArrayList<Notification>();
-        AppointmentOutcomeRecordStore.subscribe(this);
+        this.notifications = new NotificationInbox(NOTIFICATION_INBOX_CAPACITY);
+        AppointmentOutcomeRecordStore.subscribe(asyncSubscriber);
+        MedicineStore.subscribe(asyncSubscriber);
     }
 
     /**
      * Implements the ISubscriber interface.
-     * Updates the list of notifications when receiving a new notification from subscribed publishers.
+     * Adds a new notification from subscribed publishers to the inbox of notifications.
      *
-     * @param notification The new notification to be added to the list.
+     * @param notification The new notification to be added to the inbox.
      */
     public void update(Notification notification){
         notifications.add(notification);
     }
 
+    /**
+     * Unsubscribes from the AppointmentOutcomeRecordStore and the MedicineStore.
+     */
+    public void dispose(){
+        AppointmentOutcomeRecordStore.unsubscribe(asyncSubscriber);
+        MedicineStore.unsubscribe(asyncSubscriber);
+    }
+
     /**
      * Displays a menu with a set of actions that the pharmacist can choose from, including:
      * <ol>
      *  <li>Show notifications</li>
      *  <li>View appointment outcome record</li>
      *  <li>Update prescription status</li>
+     *  <li>Dispense next pending record</li>
+     *  <li>View pick list</li>
      *  <li>View medication inventory</li>
      *  <li>Submit replenishment request</li>
      *  <li>Change password</li>
@@ -73,28 +97,25 @@ public class PharmacistView extends DashboardView{
             System.out.println("|                                           PHARMACIST DASHBOARD                                     |");
             System.out.println("======================================================================================================");
             System.out.println("Welcome, " + user.getName());
-            if (notifications.size() > 0) {
-                System.out.println("You have " + notifications.size() + " new notifications.");
+            if (notifications.getUnreadCount() > 0) {
+                System.out.println("You have " + notifications.getUnreadCount() + " new notifications.");
             }
             System.out.println("What would you like to do?");
             System.out.println("1. Show notifications");
             System.out.println("2. View appointment outcome record");
             System.out.println("3. Update prescription status");
-            System.out.println("4. View medication inventory");
-            System.out.println("5. Submit replenishment request");
-            System.out.println("6. Change password");
-            System.out.println("7. Logout");
+            System.out.println("4. Dispense next pending record");
+            System.out.println("5. View pick list");
+            System.out.println("6. View medication inventory");
+            System.out.println("7. Submit replenishment request");
+            System.out.println("8. Change password");
+            System.out.println("9. Logout");
             System.out.println();
 
-            int choice = getChoice(1, 7);
+            int choice = getChoice(1, 9);
             switch (choice) {
                 case 1:
-                    List<String> notificationStrings = new ArrayList<String>();
-                    for(Notification notification : notifications){
-                        notificationStrings.add(notification.toString());
-                    }
-                    showNotifications(notificationStrings);
-                    notifications.clear();
+                    showNotificationInbox(notifications);
                     break;
                 case 2:
                     showAppointmentOutcomeRecord();
@@ -103,14 +124,20 @@ public class PharmacistView extends DashboardView{
                     showUpdatePrescriptionStatusForm();
                     break;
                 case 4:
-                    showMedicationInventory();
+                    showDispenseNextPendingRecordForm();
                     break;
                 case 5:
-                    showSubmitReplenishmentRequestForm();
+                    showPickList();
                     break;
                 case 6:
-                    showChangePasswordForm(this.user);
+                    showMedicationInventory();
+                    break;
                 case 7:
+                    showSubmitReplenishmentRequestForm();
+                    break;
+                case 8:
+                    showChangePasswordForm(this.user);
+                case 9:
                     user.logout();
                     return;
             }
@@ -156,7 +183,7 @@ public class PharmacistView extends DashboardView{
             System.out.println("  (Empty)");
         }
         for (Prescription prescription : record.getPrescriptions()) {
-            System.out.println("- " + prescription.getMedicine().getName() + "  (" + prescription.getStatus() + ")");
+            System.out.println("- " + prescription + "  (" + prescription.getStatus() + ")");
         }
         System.out.println();
     }
@@ -166,7 +193,7 @@ public class PharmacistView extends DashboardView{
      * <ol>
      *  <li>Prompts the pharmacist to enter the appointment outcome record ID that need to dispense prescribed medications.</li>
      *  <li>If there are no prescriptions available under the outcome record, it notifies the user and exits.</li>
-     *  <li>Otherwise, it lists the prescriptions and prompts the user to select one to dispense.</li>
+     *  <li>Otherwise, it lists the prescriptions and prompts the user to select one, or all pending ones, to dispense.</li>
      * </ol>
      */
     public void showUpdatePrescriptionStatusForm(){
@@ -181,6 +208,42 @@ public class PharmacistView extends DashboardView{
             return;
         }
 
+        showDispensePrescriptionsForm(record);
+    }
+
+    /**
+     * Displays a form to dispense the prescriptions of the appointment outcome record at the head of the pending work queue:
+     * <ol>
+     *  <li>Claims the next appointment outcome record with pending prescriptions, so that no other pharmacist works on it meanwhile.</li>
+     *  <li>Lists the prescriptions and prompts the pharmacist to select one, or all pending ones, to dispense.</li>
+     *  <li>Releases the record, which goes back to the queue if it still has pending prescriptions.</li>
+     * </ol>
+     */
+    public void showDispenseNextPendingRecordForm(){
+        AppointmentOutcomeRecord record;
+        try {
+            record = PharmacistController.claimNextPendingRecord();
+        } catch (Exception e) {
+            showError(e.getMessage());
+            return;
+        }
+
+        try {
+            System.out.println("Appointment outcome record ID: " + record.getAppointmentOutcomeRecordId());
+            System.out.println("Service type: " + record.getServiceType());
+            showDispensePrescriptionsForm(record);
+        } finally {
+            PharmacistController.releasePendingRecord(record.getAppointmentOutcomeRecordId());
+        }
+    }
+
+    /**
+     * Lists the prescriptions of an appointment outcome record and prompts the pharmacist to select one, or all pending ones, to dispense.
+     * If there are no prescriptions available under the outcome record, it notifies the user and exits.
+     *
+     * @param record the appointment outcome record whose prescriptions are dispensed
+     */
+    private void showDispensePrescriptionsForm(AppointmentOutcomeRecord record){
         if(record.getPrescriptions().isEmpty()){
             System.out.println("There are no prescriptions available to update.");
             return;
@@ -189,12 +252,39 @@ public class PharmacistView extends DashboardView{
         System.out.println("Which prescription would you like to update?");
         int count = 1;
         for(Prescription prescription : record.getPrescriptions()){
-            System.out.println(count + ". " + prescription.getMedicine().getName() + "  (" + prescription.getStatus() + ")");
+            System.out.println(count + ". " + prescription + "  (" + prescription.getStatus() + ")");
             count++;
         }
-        System.out.println(count + ". Quit");
-        int choice = getChoice(1, record.getPrescriptions().size() + 1);
+        System.out.println(count + ". All pending prescriptions");
+        System.out.println((count + 1) + ". Quit");
+        int choice = getChoice(1, record.getPrescriptions().size() + 2);
+        if(choice == record.getPrescriptions().size() + 2){
+            return;
+        }
+
         if(choice == record.getPrescriptions().size() + 1){
+            List<DispenseResult> results;
+            try{
+                results = PharmacistController.approveAllPrescriptionRequests(record.getAppointmentOutcomeRecordId());
+            } catch(Exception e){
+                showError(e.getMessage());
+                return;
+            }
+            int dispensedCount = Collections.frequency(results, DispenseResult.DISPENSED);
+            int shortageCount = Collections.frequency(results, DispenseResult.INSUFFICIENT_STOCK);
+            if(shortageCount == 0){
+                showSuccess("All pending prescriptions dispensed successfully.");
+            }
+            else if(dispensedCount == 0){
+                showError("Insufficient medicine stock. No prescription has been dispensed.");
+            }
+            else{
+                showError("Insufficient medicine stock. " + dispensedCount + " prescription(s) dispensed, "
+                    + shortageCount + " prescription(s) left pending.");
+            }
+            for(int i = 0; i < results.size(); i++){
+                System.out.println((i + 1) + ". " + record.getPrescriptions().get(i) + "  (" + results.get(i) + ")");
+            }
             return;
         }
 
@@ -206,6 +296,29 @@ public class PharmacistView extends DashboardView{
         }
     }
 
+    /**
+     * Displays the dispensary pick list, i.e., the total quantity of each medicine required by all pending prescriptions,
+     * along with its current stock level and shortfall.
+     */
+    public void showPickList(){
+        List<PickListItem> pickList = PharmacistController.getPickList();
+        if(pickList.isEmpty()){
+            System.out.println("There are no pending prescriptions.");
+            return;
+        }
+
+        showSuccess();
+        System.out.println("Pick List: ");
+        System.out.println("--------------------");
+        int count = 1;
+        for(PickListItem item : pickList){
+            System.out.println(count + ". " + item.getMedicine().getName() + "\t\tRequired: " + item.getRequiredQuantity()
+                + "\t\tStock: " + item.getStock() + "\t\tShortfall: " + item.getShortfall());
+            count++;
+        }
+        System.out.println();
+    }
+
     /**
      * Displays the medication inventory.
      */
@@ -226,25 +339,25 @@ public class PharmacistView extends DashboardView{
     /**
      * Displays a form for submitting medication replenishment requests to the Administrator.
      * <ol>
-     *  <li>Retrieves the current medicine inventory.</li>
-     *  <li>If the inventory is empty, it notifies the user and exits.</li>
-     *  <li>Otherwise, it lists the available medicines along with their low stock level alert lines and current stock levels.</li>
+     *  <li>Retrieves the medicines at or below their low stock level alert lines.</li>
+     *  <li>If there are no such medicines, it notifies the user and exits.</li>
+     *  <li>Otherwise, it lists the low stock medicines along with their low stock level alert lines and current stock levels.</li>
      *  <li>Prompts the Pharmacist to select a medicine for replenishment.</li>
      * </ol>
      */
     public void showSubmitReplenishmentRequestForm(){
         int count, choice;
-        List<Medicine> medicineInventory = PharmacistController.getMedicineInventory();
+        List<Medicine> medicineInventory = PharmacistController.getLowStockMedicines();
 
         if(medicineInventory.isEmpty()){
-            System.out.println("There are no medicines available.");
+            System.out.println("There are no medicines at or below the low stock level alert line.");
             return;
         }
 
         System.out.println("Please select the medicine for replenishment: ");
         count = 1;
         for(Medicine medicine : medicineInventory){
-            System.out.println(count + ". " + medicine.getName() + "\t\tLow stock threshold: " + medicine.getLowStockThreshold() + "\t\tStock: " + medicine.getStock());
+            System.out.println(count + ". " + medicine.getName() + "\t\tLow stock threshold: " + medicine.getLowStockThreshold() + "\t\tStock: " + medicine.getStock() + (medicine.getIsRequestingReplenishment() ? "\t\t(Requested)" : ""));
             count++;
         }
         System.out.println(count + ". Quit");